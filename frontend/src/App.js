@@ -5,6 +5,8 @@ import { FixedSizeGrid as VirtualGrid } from 'react-window';
 // URL de l'API - utilise une URL relative pour fonctionner avec nginx en production
 // ou la variable d'environnement REACT_APP_API_URL pour le développement local
 const API_BASE_URL = process.env.REACT_APP_API_URL || '/api/favorites';
+// Miniatures servies par le proxy d'images du backend (cache disque local)
+const IMAGE_BASE_URL = API_BASE_URL.replace(/\/favorites$/, '/images');
 
 // Composant carte de favori (extrait pour performances)
 const FavoriteCard = ({ favorite }) => {
@@ -25,7 +27,7 @@ const FavoriteCard = ({ favorite }) => {
           background: 'rgba(0, 0, 0, 0.3)'
         }}>
           <img
-            src={favorite.imageUrl}
+            src={`${IMAGE_BASE_URL}/${favorite.id}`}
             alt={favorite.title}
             loading="lazy"
             style={{
@@ -35,6 +37,12 @@ const FavoriteCard = ({ favorite }) => {
               display: 'block'
             }}
             onError={(e) => {
+              // Repli unique sur l'image Vinted d'origine si le proxy échoue
+              if (!e.target.dataset.fallback) {
+                e.target.dataset.fallback = 'true';
+                e.target.src = favorite.imageUrl;
+                return;
+              }
               e.target.style.display = 'none';
             }}
           />
@@ -334,6 +342,16 @@ const VintedFavoritesApp = () => {
         method: 'POST'
       });
       if (!response.ok) throw new Error('Erreur lors de la synchronisation');
+      // La sync tourne en arrière-plan : suivre son job jusqu'à la fin
+      const { jobId } = await response.json();
+      let job;
+      do {
+        await new Promise(resolve => setTimeout(resolve, 1000));
+        const jobResponse = await fetch(`/api/vinted/jobs/${jobId}`);
+        if (!jobResponse.ok) throw new Error('Erreur lors de la synchronisation');
+        job = await jobResponse.json();
+      } while (job.status === 'RUNNING');
+      if (job.status === 'FAILED') throw new Error(job.error || 'Erreur lors de la synchronisation');
       await fetchFavorites();
     } catch (err) {
       setError(err.message);
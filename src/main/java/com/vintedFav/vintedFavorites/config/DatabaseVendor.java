@@ -0,0 +1,40 @@
+package com.vintedFav.vintedFavorites.config;
+
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Base effectivement utilisée (PostgreSQL en production, H2 avec le profil embedded),
+ * pour les rares requêtes natives qui diffèrent d'un moteur à l'autre.
+ */
+@Component
+public class DatabaseVendor {
+
+    private final DataSource dataSource;
+    private volatile DatabaseDriver driver;
+
+    public DatabaseVendor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public DatabaseDriver getDriver() {
+        if (driver == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                driver = DatabaseDriver.fromProductName(product);
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Impossible d'identifier la base de données", e);
+            }
+        }
+        return driver;
+    }
+
+    public boolean isPostgres() {
+        return getDriver() == DatabaseDriver.POSTGRESQL;
+    }
+}
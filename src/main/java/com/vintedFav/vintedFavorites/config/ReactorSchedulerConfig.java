@@ -0,0 +1,27 @@
+package com.vintedFav.vintedFavorites.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler des accès base faits depuis les chaînes WebClient : JPA/JDBC est bloquant
+ * et ne doit jamais tourner sur l'event loop Reactor Netty.
+ * Borné à la taille du pool Hikari : au-delà, les threads attendraient de toute façon une connexion.
+ */
+@Configuration
+public class ReactorSchedulerConfig {
+
+    @Value("${vinted.reactive.jdbc-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int jdbcThreads;
+
+    @Value("${vinted.reactive.jdbc-queue:10000}")
+    private int jdbcQueue;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler() {
+        return Schedulers.newBoundedElastic(jdbcThreads, jdbcQueue, "jdbc");
+    }
+}
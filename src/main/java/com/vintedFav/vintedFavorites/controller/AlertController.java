@@ -0,0 +1,77 @@
+package com.vintedFav.vintedFavorites.controller;
+
+import com.vintedFav.vintedFavorites.model.Alert;
+import com.vintedFav.vintedFavorites.model.AlertRule;
+import com.vintedFav.vintedFavorites.service.AlertService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Règles d'alerte (baisse de prix, retour en stock) et alertes déclenchées par les syncs
+ */
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080"})
+@RequiredArgsConstructor
+public class AlertController {
+
+    private final AlertService alertService;
+
+    /**
+     * Alertes déclenchées, de la plus récente à la plus ancienne
+     */
+    @GetMapping
+    public ResponseEntity<List<Alert>> getAlerts(
+            @RequestParam(required = false) Long ruleId,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(alertService.getAlerts(ruleId, limit));
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<List<AlertRule>> getRules() {
+        return ResponseEntity.ok(alertService.getRules());
+    }
+
+    @PostMapping("/rules")
+    public ResponseEntity<AlertRule> createRule(@RequestBody AlertRule rule) {
+        rule.setId(null);
+        return ResponseEntity.status(HttpStatus.CREATED).body(alertService.saveRule(rule));
+    }
+
+    @PutMapping("/rules/{id}")
+    public ResponseEntity<AlertRule> updateRule(@PathVariable Long id, @RequestBody AlertRule rule) {
+        Optional<AlertRule> existing = alertService.getRule(id);
+        if (existing.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        rule.setId(id);
+        rule.setCreatedAt(existing.get().getCreatedAt());
+        return ResponseEntity.ok(alertService.saveRule(rule));
+    }
+
+    /**
+     * Supprime la règle et les alertes qu'elle a déclenchées
+     */
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long id) {
+        return alertService.deleteRule(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+}
@@ -1,29 +1,100 @@
 package com.vintedFav.vintedFavorites.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vintedFav.vintedFavorites.dto.FavoriteFilter;
+import com.vintedFav.vintedFavorites.dto.ImportResponse;
+import com.vintedFav.vintedFavorites.dto.PriceDrop;
 import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import com.vintedFav.vintedFavorites.repository.FavoriteProjection;
+import com.vintedFav.vintedFavorites.service.FavoriteArchiveService;
+import com.vintedFav.vintedFavorites.service.FavoriteDatasetVersion;
+import com.vintedFav.vintedFavorites.service.FavoriteDetailsService;
+import com.vintedFav.vintedFavorites.service.FavoriteHistoryService;
+import com.vintedFav.vintedFavorites.service.FavoriteImportService;
 import com.vintedFav.vintedFavorites.service.FavoriteService;
+import com.vintedFav.vintedFavorites.service.SyncCoordinator;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/favorites")
 @CrossOrigin(origins = "http://localhost:3000")
 public class FavoriteController {
 
+    // Le navigateur garde sa copie mais la revalide à chaque fois via If-None-Match
+    private static final CacheControl LIST_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private FavoriteService favoriteService;
 
+    @Autowired
+    private FavoriteDatasetVersion datasetVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FavoriteImportService importService;
+
+    @Autowired
+    private FavoriteHistoryService historyService;
+
+    @Autowired
+    private FavoriteArchiveService archiveService;
+
+    @Autowired
+    private FavoriteDetailsService detailsService;
+
+    @Autowired
+    private SyncCoordinator syncCoordinator;
+
+    @Value("${vinted.api.enrichment-on-demand-timeout:60000}")
+    private long enrichmentOnDemandTimeoutMs;
+
     @GetMapping
-    public ResponseEntity<List<Favorite>> getAllFavorites(
-            @RequestParam(required = false, defaultValue = "asc") String sortOrder
+    public ResponseEntity<List<Map<String, Object>>> getAllFavorites(
+            @RequestParam(required = false, defaultValue = "asc") String sortOrder,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request
     ) {
-        List<Favorite> favorites = favoriteService.getAllFavorites(sortOrder);
-        return ResponseEntity.ok(favorites);
+        return conditional(request, () -> favoriteService.getFavoriteSummaries(sortOrder, fields, includeArchived));
+    }
+
+    /**
+     * Export NDJSON : une ligne JSON par favori, envoyée au fil de la lecture du curseur
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFavorites(
+            @RequestParam(required = false, defaultValue = "asc") String sortOrder,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        FavoriteFilter filter = new FavoriteFilter();
+        filter.setIncludeArchived(includeArchived);
+        return ndjson(filter, fields, "desc".equalsIgnoreCase(sortOrder));
     }
 
     @GetMapping("/{id}")
@@ -33,16 +104,77 @@ public class FavoriteController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Changements de prix et de statut d'un favori, du plus récent au plus ancien
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<FavoriteHistory>> getFavoriteHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(historyService.getHistory(id));
+    }
+
+    @GetMapping("/{id}/details")
+    public ResponseEntity<FavoriteDetails> getFavoriteDetails(@PathVariable Long id) {
+        return detailsService.getDetails(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Enrichit ce favori avant le reste de la file et répond avec le favori une fois sa page Vinted lue.
+     * Passé le délai, répond 202 : le favori reste en tête de file et l'enrichissement se poursuit.
+     */
+    @PostMapping("/{id}/enrich")
+    public Mono<ResponseEntity<?>> enrichFavorite(@PathVariable Long id) {
+        Optional<Favorite> favorite = favoriteService.getFavoriteById(id);
+        if (favorite.isEmpty()) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        CompletableFuture<Favorite> result = syncCoordinator.enrichNow(favorite.get());
+        // suppressCancel : le délai dépassé ne doit pas annuler la tâche partagée avec la file
+        return Mono.fromFuture(result, true)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .timeout(Duration.ofMillis(enrichmentOnDemandTimeoutMs), Mono.fromSupplier(() -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("favoriteId", id);
+                    body.put("message", "Enrichissement en file, réessayez plus tard");
+                    return ResponseEntity.accepted().body(body);
+                }))
+                .onErrorResume(e -> {
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("favoriteId", id);
+                    error.put("message", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error));
+                });
+    }
+
+    @GetMapping("/price-drops")
+    public ResponseEntity<List<PriceDrop>> getRecentPriceDrops(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(historyService.getRecentPriceDrops(days, limit));
+    }
+
     @PostMapping
     public ResponseEntity<Favorite> createFavorite(@RequestBody Favorite favorite) {
         Favorite savedFavorite = favoriteService.saveFavorite(favorite);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedFavorite);
     }
 
-    @PostMapping("/import")
-    public ResponseEntity<List<Favorite>> importFavorites(@RequestBody List<Favorite> favorites) {
-        List<Favorite> savedFavorites = favoriteService.saveAllFavorites(favorites);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedFavorites);
+    /**
+     * Import d'un tableau JSON de favoris, lu en flux et dédoublonné par vintedId
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResponse> importFavorites(HttpServletRequest request) throws IOException {
+        ImportResponse response = importService.importFavorites(request.getInputStream());
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        }
+        // Erreur de base : les lots déjà validés sont dans la réponse
+        return response.getFailedBatch() > 0
+                ? ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response)
+                : ResponseEntity.badRequest().body(response);
     }
 
     @PutMapping("/{id}")
@@ -63,24 +195,96 @@ public class FavoriteController {
     }
 
     @GetMapping("/filter")
-    public ResponseEntity<List<Favorite>> filterFavorites(
+    public ResponseEntity<List<Map<String, Object>>> filterFavorites(
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Boolean sold,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request
+    ) {
+        return conditional(request,
+                () -> favoriteService.filterFavorites(brand, gender, category, sold, includeArchived, fields));
+    }
+
+    @GetMapping(value = "/filter/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilteredFavorites(
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) String gender,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) Boolean sold
+            @RequestParam(required = false) Boolean sold,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived
     ) {
-        List<Favorite> filteredFavorites = favoriteService.filterFavorites(brand, gender, category, sold);
-        return ResponseEntity.ok(filteredFavorites);
+        return ndjson(new FavoriteFilter(brand, gender, category, sold, includeArchived), fields, false);
     }
 
     @GetMapping("/brands")
-    public ResponseEntity<List<String>> getAllBrands() {
-        List<String> brands = favoriteService.getAllFavorites().stream()
-                .map(Favorite::getBrand)
-                .filter(brand -> brand != null && !brand.isEmpty())
-                .distinct()
-                .sorted()
-                .toList();
-        return ResponseEntity.ok(brands);
-    }
-}
\ No newline at end of file
+    public ResponseEntity<List<String>> getAllBrands(
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request
+    ) {
+        return conditional(request, () -> favoriteService.getAllBrands(includeArchived));
+    }
+
+    /**
+     * Archive immédiatement les favoris vendus depuis plus de vinted.archive.sold-after-days jours
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveSoldFavorites() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("archived", archiveService.archiveSoldFavorites());
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(FavoriteFilter filter, String fields, boolean descending) {
+        // Validé avant d'ouvrir le flux pour pouvoir encore répondre 400
+        List<String> selectedFields = FavoriteProjection.parseFields(fields);
+
+        StreamingResponseBody body = out -> favoriteService.streamFavorites(filter, selectedFields, descending,
+                row -> writeLine(out, row));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> row) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(row));
+            // Pas de flush par ligne : le tampon de la réponse part en chunks dès qu'il est plein
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Répond 304 sans charger les favoris si le client possède déjà la version courante (une seule lecture,
+     * celle de la version partagée),
+     * sinon charge le corps et l'étiquette avec l'ETag de cette version.
+     * L'ETag est lu avant le chargement : au pire le client recharge une fois de trop, jamais une fois de moins.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> loader) {
+        String etag = datasetVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(LIST_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(LIST_CACHE_CONTROL)
+                .body(loader.get());
+    }
+}
@@ -0,0 +1,105 @@
+package com.vintedFav.vintedFavorites.controller;
+
+import com.vintedFav.vintedFavorites.service.ImageThumbnailService;
+import com.vintedFav.vintedFavorites.service.ImageThumbnailService.ThumbnailSize;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vignettes des photos de favoris, servies depuis le cache disque local plutôt que depuis le CDN Vinted
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080"})
+@RequiredArgsConstructor
+@Slf4j
+public class ImageController {
+
+    // URL sans version (/api/images/{id}) alors que la photo du favori peut changer : revalidation à chaque
+    // affichage, peu coûteuse puisque l'ETag (nom du fichier, dérivé de l'URL de la photo) répond 304 sans corps
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    // Attributs de requête de Tomcat pour l'envoi par sendfile (copie noyau, sans passer par la JVM)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageThumbnailService thumbnailService;
+
+    @GetMapping("/{favoriteId}")
+    public ResponseEntity<Resource> getImage(
+            @PathVariable Long favoriteId,
+            @RequestParam(defaultValue = "thumb") String size,
+            HttpServletRequest request,
+            WebRequest webRequest
+    ) {
+        ThumbnailSize thumbnailSize = ThumbnailSize.fromParam(size);
+
+        Optional<Path> thumbnail;
+        try {
+            thumbnail = thumbnailService.getThumbnail(favoriteId, thumbnailSize);
+        } catch (IOException e) {
+            log.warn("Vignette indisponible pour le favori {}: {}", favoriteId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+        if (thumbnail.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Path file = thumbnail.get();
+        String etag = "\"" + file.getFileName() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(IMAGE_CACHE_CONTROL)
+                    .build();
+        }
+
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (IOException e) {
+            // Évincée entre-temps : le prochain appel la régénère
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .contentLength(length)
+                .eTag(etag)
+                .cacheControl(IMAGE_CACHE_CONTROL);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.build();
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+}
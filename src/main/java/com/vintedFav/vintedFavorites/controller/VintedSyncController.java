@@ -2,19 +2,27 @@ package com.vintedFav.vintedFavorites.controller;
 
 import com.vintedFav.vintedFavorites.dto.CookieUpdateRequest;
 import com.vintedFav.vintedFavorites.dto.CredentialsRequest;
-import com.vintedFav.vintedFavorites.dto.SyncResponse;
 import com.vintedFav.vintedFavorites.model.VintedCookie;
 import com.vintedFav.vintedFavorites.model.VintedCredentials;
-import com.vintedFav.vintedFavorites.service.FavoriteService;
+import com.vintedFav.vintedFavorites.scheduler.AdaptiveSyncInterval;
+import com.vintedFav.vintedFavorites.scheduler.VintedSyncScheduler;
+import com.vintedFav.vintedFavorites.service.CacheStatisticsService;
+import com.vintedFav.vintedFavorites.service.FavoriteEventService;
+import com.vintedFav.vintedFavorites.service.SyncCoordinator;
+import com.vintedFav.vintedFavorites.service.SyncJob;
 import com.vintedFav.vintedFavorites.service.VintedApiService;
 import com.vintedFav.vintedFavorites.service.VintedCookieService;
 import com.vintedFav.vintedFavorites.service.VintedSessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,8 +37,12 @@ public class VintedSyncController {
 
     private final VintedApiService vintedApiService;
     private final VintedCookieService cookieService;
-    private final FavoriteService favoriteService;
     private final VintedSessionService sessionService;
+    private final FavoriteEventService eventService;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final AdaptiveSyncInterval syncInterval;
+    private final VintedSyncScheduler syncScheduler;
+    private final SyncCoordinator syncCoordinator;
 
     /**
      * Met à jour les cookies Vinted
@@ -114,62 +126,107 @@ public class VintedSyncController {
     }
 
     /**
-     * Synchronise les favoris depuis Vinted
+     * Lance la synchronisation des favoris depuis Vinted (202 + id du job à suivre sur /api/vinted/jobs/{id}).
+     * Si une sync est déjà en cours, renvoie son job au lieu d'en lancer une seconde.
      * Si la session est expirée et que les credentials sont configurés,
-     * lance automatiquement un refresh via Playwright avant de synchroniser
+     * le refresh Playwright est fait automatiquement avant de synchroniser.
      */
     @PostMapping("/sync")
-    public Mono<ResponseEntity<SyncResponse>> syncFavorites() {
+    public ResponseEntity<Map<String, Object>> syncFavorites() {
         log.info("Démarrage de la synchronisation des favoris");
 
-        // Si session invalide mais credentials configurés -> auto-refresh
-        if (!vintedApiService.isSessionValid() && sessionService.hasCredentials()) {
-            log.info("Session expirée - lancement automatique du refresh Playwright...");
-
-            return Mono.fromFuture(sessionService.refreshSession())
-                    .flatMap(success -> {
-                        if (success) {
-                            log.info("Refresh réussi - lancement de la synchronisation...");
-                            return syncFavoritesInternal();
-                        } else {
-                            log.error("Échec du refresh automatique");
-                            return Mono.just(ResponseEntity.badRequest()
-                                    .body(new SyncResponse(false, "Échec du rafraîchissement automatique de la session", 0, 0)));
-                        }
-                    });
+        // Si session invalide et pas de credentials -> erreur
+        if (!vintedApiService.isSessionValid() && !sessionService.hasCredentials()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "Session expirée - configurez vos identifiants avec POST /api/vinted/credentials");
+            return ResponseEntity.badRequest().body(error);
         }
 
-        // Si session invalide et pas de credentials -> erreur
+        return accepted(syncCoordinator.startSync("manual"), "Synchronisation lancée");
+    }
+
+    /**
+     * Vérifie tout de suite le statut vendu des favoris disponibles (au plus vinted.probe.max-items),
+     * sans relire toute la liste. 409 pendant une sync, qui relit déjà tous les statuts.
+     */
+    @PostMapping("/probe")
+    public ResponseEntity<Map<String, Object>> probeSoldStatus() {
         if (!vintedApiService.isSessionValid()) {
-            return Mono.just(ResponseEntity.badRequest()
-                    .body(new SyncResponse(false, "Session expirée - configurez vos identifiants avec POST /api/vinted/credentials", 0, 0)));
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "Cookies non configurés ou session expirée");
+            return ResponseEntity.badRequest().body(error);
         }
 
-        // Session valide -> sync directement
-        return syncFavoritesInternal();
+        return syncCoordinator.startProbe("manual")
+                .map(job -> accepted(job, "Sonde du statut vendu lancée"))
+                .orElseGet(() -> {
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("success", false);
+                    error.put("message", "Synchronisation en cours");
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+                });
+    }
+
+    /**
+     * Avancement d'un job de sync, d'enrichissement ou de sonde : étapes, débit et ETA
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String id) {
+        return syncCoordinator.getJob(id)
+                .map(job -> ResponseEntity.ok(job.toStatus()))
+                .orElse(ResponseEntity.notFound().build());
     }
 
-    private Mono<ResponseEntity<SyncResponse>> syncFavoritesInternal() {
-        return vintedApiService.syncAllFavorites()
-                .map(newCount -> {
-                    int totalCount = favoriteService.getAllFavorites().size();
-                    log.info("Synchronisation terminée: {} nouveaux, {} total", newCount, totalCount);
-                    return ResponseEntity.ok(new SyncResponse(
-                            true,
-                            "Synchronisation réussie",
-                            newCount,
-                            totalCount
-                    ));
-                })
-                .onErrorResume(e -> {
-                    log.error("Erreur lors de la synchronisation: {}", e.getMessage());
-                    String errorMessage = e.getMessage();
-                    if (errorMessage.contains("Session expirée")) {
-                        errorMessage = "Session expirée - une nouvelle tentative de refresh sera effectuée";
-                    }
-                    return Mono.just(ResponseEntity.badRequest()
-                            .body(new SyncResponse(false, errorMessage, 0, 0)));
-                });
+    /**
+     * Derniers jobs, du plus récent au plus ancien
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<Map<String, Object>>> getRecentJobs() {
+        return ResponseEntity.ok(syncCoordinator.getRecentJobs().stream().map(SyncJob::toStatus).toList());
+    }
+
+    private ResponseEntity<Map<String, Object>> accepted(SyncJob job, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        response.put("jobId", job.getId());
+        response.put("job", job.toStatus());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/vinted/jobs/" + job.getId()))
+                .body(response);
+    }
+
+    /**
+     * Intervalle courant de la sync périodique, prochaine exécution et dernières décisions du planificateur
+     */
+    @GetMapping("/sync/schedule")
+    public ResponseEntity<Map<String, Object>> getSyncSchedule() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("intervalMs", syncInterval.getIntervalMs());
+        response.put("nextRunAt", syncScheduler.getNextRunAt());
+        response.put("decisions", syncInterval.getDecisions());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Flux SSE : sync-progress, favorite-upserted, favorite-enriched, favorite-sold
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents() {
+        return ResponseEntity.ok()
+                // Empêche nginx de bufferiser le flux
+                .header("X-Accel-Buffering", "no")
+                .body(eventService.subscribe());
+    }
+
+    /**
+     * Hits / misses du cache de second niveau Hibernate, par région
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
     }
 
     /**
@@ -198,49 +255,21 @@ public class VintedSyncController {
     }
 
     /**
-     * Force l'enrichissement des favoris incomplets (sans category ou gender)
+     * Force l'enrichissement des favoris incomplets (sans category, gender ou détails).
+     * Répond 202 avec le job, ou celui de l'enrichissement déjà en cours.
      */
     @PostMapping("/favorites/enrich")
-    public Mono<ResponseEntity<Map<String, Object>>> enrichIncompleteFavorites() {
+    public ResponseEntity<Map<String, Object>> enrichIncompleteFavorites() {
         log.info("Démarrage de l'enrichissement forcé des favoris incomplets");
 
         if (!vintedApiService.isSessionValid()) {
             Map<String, Object> error = new HashMap<>();
             error.put("success", false);
             error.put("message", "Cookies non configurés ou session expirée");
-            return Mono.just(ResponseEntity.badRequest().body(error));
-        }
-
-        int toEnrichCount = vintedApiService.getFavoritesNeedingEnrichment().size();
-        int totalCount = favoriteService.getAllFavorites().size();
-
-        if (toEnrichCount == 0) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Tous les favoris sont déjà complets");
-            response.put("enriched", 0);
-            response.put("total", totalCount);
-            return Mono.just(ResponseEntity.ok(response));
+            return ResponseEntity.badRequest().body(error);
         }
 
-        log.info("Enrichissement de {} favoris sur {}", toEnrichCount, totalCount);
-
-        return vintedApiService.enrichAllUntilComplete()
-                .then(Mono.fromCallable(() -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", true);
-                    response.put("message", "Enrichissement terminé");
-                    response.put("enriched", toEnrichCount);
-                    response.put("total", totalCount);
-                    return ResponseEntity.ok(response);
-                }))
-                .onErrorResume(e -> {
-                    log.error("Erreur lors de l'enrichissement: {}", e.getMessage());
-                    Map<String, Object> error = new HashMap<>();
-                    error.put("success", false);
-                    error.put("message", e.getMessage());
-                    return Mono.just(ResponseEntity.badRequest().body(error));
-                });
+        return accepted(syncCoordinator.startEnrichment("manual"), "Enrichissement lancé");
     }
 
     private Map<String, String> parseRawCookies(String rawCookies) {
@@ -0,0 +1,16 @@
+package com.vintedFav.vintedFavorites.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteFilter {
+    private String brand;    // comparaison insensible à la casse
+    private String gender;
+    private String category;
+    private Boolean sold;    // null = vendus et disponibles
+    private boolean includeArchived; // inclut les vendus archivés (favorites_archive)
+}
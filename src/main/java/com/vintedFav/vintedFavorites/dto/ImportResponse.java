@@ -0,0 +1,33 @@
+package com.vintedFav.vintedFavorites.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportResponse {
+    private boolean success = true;
+    private String message;
+    private int read;        // objets lus dans le tableau JSON
+    private int inserted;
+    private int updated;     // vintedId déjà présent : mis à jour (ON CONFLICT)
+    private int duplicates;  // même vintedId répété dans un lot : seule la dernière occurrence est gardée
+    private int skipped;     // sans titre, ou vendu déjà archivé : rejetés
+    private int failedBatch; // numéro du lot annulé par une erreur de base, 0 sinon
+    private List<BatchStats> batches = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchStats {
+        private int batch;
+        private int size;
+        private int inserted;
+        private int updated;
+        private long durationMs;
+    }
+}
@@ -0,0 +1,20 @@
+package com.vintedFav.vintedFavorites.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceDrop {
+    private Long favoriteId;
+    private String title;
+    private String brand;
+    private String imageUrl;
+    private Double previousPrice;
+    private Double price;
+    private LocalDateTime droppedAt;
+}
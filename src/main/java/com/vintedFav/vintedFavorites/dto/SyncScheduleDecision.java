@@ -0,0 +1,33 @@
+package com.vintedFav.vintedFavorites.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Décision du planificateur adaptatif après une sync périodique ou celle du démarrage
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncScheduleDecision {
+
+    public enum Outcome {
+        ACTIVE,   // nouveaux, vendus ou prix modifiés : intervalle raccourci
+        QUIET,    // rien de notable : intervalle allongé
+        FAILED,   // sync en erreur : intervalle conservé
+        SKIPPED   // sync non lancée (session absente) : intervalle conservé
+    }
+
+    private LocalDateTime decidedAt;
+    private Outcome outcome;
+    private int newCount;
+    private int soldCount;
+    private int repricedCount;
+    private long previousIntervalMs;
+    private long intervalMs;
+    private long delayMs;          // intervalle après jitter
+    private LocalDateTime nextRunAt;
+}
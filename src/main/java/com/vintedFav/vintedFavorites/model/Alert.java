@@ -0,0 +1,46 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alerte déclenchée par une règle lors d'une sync
+ */
+@Entity
+@Table(name = "alerts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Alert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rule_id", nullable = false)
+    private Long ruleId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_type", nullable = false, length = 32)
+    private AlertRule.Type type;
+
+    @Column(name = "favorite_id")
+    private Long favoriteId;
+
+    @Column(name = "vinted_id")
+    private String vintedId;
+
+    private String title;
+
+    private Double price;
+
+    @Column(name = "previous_price")
+    private Double previousPrice;
+
+    @Column(name = "fired_at", nullable = false)
+    private LocalDateTime firedAt;
+}
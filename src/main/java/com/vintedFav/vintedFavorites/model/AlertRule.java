@@ -0,0 +1,59 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Règle d'alerte : marque, catégorie et taille filtrent les favoris concernés (null = toute valeur).
+ * PRICE_DROP se déclenche sur une baisse de prix, bornée si besoin par maxPrice et minDropPercent ;
+ * BACK_IN_STOCK quand un favori vendu redevient disponible.
+ */
+@Entity
+@Table(name = "alert_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertRule {
+
+    public enum Type { PRICE_DROP, BACK_IN_STOCK }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_type", nullable = false, length = 32)
+    private Type type;
+
+    private String brand;
+
+    private String category;
+
+    private String size;
+
+    // Nouveau prix au plus égal à ce seuil
+    @Column(name = "max_price")
+    private Double maxPrice;
+
+    // Baisse d'au moins ce pourcentage par rapport au prix précédent
+    @Column(name = "min_drop_percent")
+    private Double minDropPercent;
+
+    @Column(nullable = false)
+    private Boolean enabled = true;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
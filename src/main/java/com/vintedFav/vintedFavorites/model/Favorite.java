@@ -1,14 +1,19 @@
 package com.vintedFav.vintedFavorites.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "favorites")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "favorites")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +48,10 @@ public class Favorite {
 
     private Boolean sold = false;
 
+    // Renseignée au passage à vendu : sert de point de départ au délai d'archivage
+    @Column(name = "sold_at")
+    private LocalDateTime soldAt;
+
     @Column(name = "seller_name")
     private String sellerName;
 
@@ -53,6 +62,11 @@ public class Favorite {
     @Column(name = "favorite_order")
     private Integer favoriteOrder;
 
+    // Empreinte des champs Vinted modifiables, comparée par la sync avant toute écriture
+    @JsonIgnore
+    @Column(name = "content_hash")
+    private Long contentHash;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -63,10 +77,20 @@ public class Favorite {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        trackSoldAt();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        trackSoldAt();
+    }
+
+    private void trackSoldAt() {
+        if (!Boolean.TRUE.equals(sold)) {
+            soldAt = null;
+        } else if (soldAt == null) {
+            soldAt = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
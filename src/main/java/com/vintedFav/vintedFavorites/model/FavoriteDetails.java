@@ -0,0 +1,57 @@
+package com.vintedFav.vintedFavorites.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Détails d'un favori lus sur sa page Vinted (description, photos, compteurs, note du vendeur).
+ * Partage l'id du favori ; jamais chargé par les requêtes de liste, seulement par /api/favorites/{id}/details.
+ */
+@Entity
+@Table(name = "favorite_details")
+@Data
+@NoArgsConstructor
+public class FavoriteDetails {
+
+    @Id
+    @Column(name = "favorite_id")
+    private Long favoriteId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "favorite_id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Favorite favorite;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "photo_urls", columnDefinition = "TEXT")
+    private List<String> photoUrls = new ArrayList<>();
+
+    @Column(name = "favourite_count")
+    private Integer favouriteCount;
+
+    @Column(name = "view_count")
+    private Integer viewCount;
+
+    @Column(name = "seller_rating")
+    private Double sellerRating; // sur 5
+
+    @Column(name = "seller_review_count")
+    private Integer sellerReviewCount;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+}
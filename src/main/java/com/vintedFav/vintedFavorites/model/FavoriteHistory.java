@@ -0,0 +1,39 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement de prix ou de statut d'un favori, enregistré par la sync (jamais modifié ensuite)
+ */
+@Entity
+@Table(name = "favorite_history")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "favorite_id", nullable = false)
+    private Long favoriteId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    private Double price;
+
+    @Column(name = "previous_price")
+    private Double previousPrice;
+
+    private Boolean sold;
+
+    @Column(name = "previous_sold")
+    private Boolean previousSold;
+}
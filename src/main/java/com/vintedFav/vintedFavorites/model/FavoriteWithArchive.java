@@ -0,0 +1,79 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.time.LocalDateTime;
+
+/**
+ * Favoris actifs et archivés réunis, en lecture seule, pour les requêtes de liste avec includeArchived=true.
+ * Mêmes noms d'attributs que Favorite : les requêtes projetées basculent simplement d'entité racine.
+ */
+@Entity
+@Immutable
+@Subselect("""
+        SELECT id, vinted_id, title, brand, category, gender, price, image_url, product_url, listed_date, sold,
+               seller_name, size, condition, favorite_order, created_at, updated_at, sold_at, FALSE AS archived
+        FROM favorites
+        UNION ALL
+        SELECT id, vinted_id, title, brand, category, gender, price, image_url, product_url, listed_date, sold,
+               seller_name, size, condition, favorite_order, created_at, updated_at, sold_at, TRUE AS archived
+        FROM favorites_archive
+        """)
+@Synchronize({"favorites", "favorites_archive"})
+@Data
+@NoArgsConstructor
+public class FavoriteWithArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "vinted_id")
+    private String vintedId;
+
+    private String title;
+
+    private String brand;
+
+    private String category;
+
+    private String gender;
+
+    private Double price;
+
+    @Column(name = "image_url")
+    private String imageUrl;
+
+    @Column(name = "product_url")
+    private String productUrl;
+
+    @Column(name = "listed_date")
+    private LocalDateTime listedDate;
+
+    private Boolean sold;
+
+    @Column(name = "seller_name")
+    private String sellerName;
+
+    private String size;
+
+    private String condition;
+
+    @Column(name = "favorite_order")
+    private Integer favoriteOrder;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "sold_at")
+    private LocalDateTime soldAt;
+
+    private Boolean archived;
+}
@@ -0,0 +1,26 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_cursors")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxCursor {
+
+    @Id
+    @Column(length = 64)
+    private String sink;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
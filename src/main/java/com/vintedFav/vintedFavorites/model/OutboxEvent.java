@@ -0,0 +1,46 @@
+package com.vintedFav.vintedFavorites.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement de changement d'un favori, en attente de livraison aux sinks de l'outbox
+ */
+@Entity
+@Table(name = "favorite_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public static final String FAVORITE_CREATED = "favorite.created";
+    public static final String FAVORITE_PRICE_DROPPED = "favorite.price-dropped";
+    public static final String FAVORITE_SOLD = "favorite.sold";
+    public static final String ALERT_FIRED = "alert.fired";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(name = "favorite_id")
+    private Long favoriteId;
+
+    @Column(name = "vinted_id")
+    private String vintedId;
+
+    // JSON déjà sérialisé : recopié tel quel dans le corps envoyé aux sinks
+    @JsonRawValue
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Liste d'URLs stockée une par ligne dans une colonne TEXT (portable PostgreSQL / H2)
+ */
+@Converter
+public class StringListConverter implements AttributeConverter<List<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<String> values) {
+        return values == null || values.isEmpty() ? null : String.join("\n", values);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String column) {
+        return column == null || column.isEmpty() ? List.of() : Arrays.asList(column.split("\n"));
+    }
+}
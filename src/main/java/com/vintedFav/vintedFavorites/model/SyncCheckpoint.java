@@ -0,0 +1,44 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avancement d'une sync complète : dernière page téléchargée et favori de tête au démarrage du run
+ */
+@Entity
+@Table(name = "sync_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCheckpoint {
+
+    @Id
+    @Column(name = "run_id", length = 36)
+    private String runId;
+
+    @Column(name = "per_page", nullable = false)
+    private Integer perPage;
+
+    @Column(name = "last_page", nullable = false)
+    private Integer lastPage;
+
+    @Column(name = "fetched_count", nullable = false)
+    private Integer fetchedCount;
+
+    private String watermark;
+
+    // Dernière page (incomplète) reçue : il ne reste qu'à appliquer
+    @Column(name = "fetch_complete", nullable = false)
+    private Boolean fetchComplete;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.vintedFav.vintedFavorites.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Page de favoris téléchargée pendant une sync, conservée jusqu'à l'application en base
+ */
+@Entity
+@Table(name = "sync_checkpoint_pages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCheckpointPage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "page_number", nullable = false)
+    private Integer pageNumber;
+
+    // Liste de favoris au format JSON, dans l'ordre Vinted
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+}
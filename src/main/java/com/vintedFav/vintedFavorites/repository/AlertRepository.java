@@ -0,0 +1,16 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.model.Alert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertRepository extends JpaRepository<Alert, Long> {
+
+    List<Alert> findAllByOrderByFiredAtDescIdDesc(Pageable pageable);
+
+    List<Alert> findByRuleIdOrderByFiredAtDescIdDesc(Long ruleId, Pageable pageable);
+}
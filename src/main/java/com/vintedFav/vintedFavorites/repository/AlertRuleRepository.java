@@ -0,0 +1,13 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.model.AlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
+
+    List<AlertRule> findByEnabledTrue();
+}
@@ -0,0 +1,15 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Set;
+
+@Repository
+public interface FavoriteDetailsRepository extends JpaRepository<FavoriteDetails, Long> {
+
+    @Query("SELECT d.favoriteId FROM FavoriteDetails d")
+    Set<Long> findAllFavoriteIds();
+}
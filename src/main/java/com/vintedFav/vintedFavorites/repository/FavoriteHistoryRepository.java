@@ -0,0 +1,25 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.dto.PriceDrop;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FavoriteHistoryRepository extends JpaRepository<FavoriteHistory, Long> {
+
+    List<FavoriteHistory> findByFavoriteIdOrderByRecordedAtDesc(Long favoriteId);
+
+    // recorded_at borné : seules les partitions récentes sont lues, via l'index partiel des baisses
+    @Query("SELECT new com.vintedFav.vintedFavorites.dto.PriceDrop(h.favoriteId, f.title, f.brand, f.imageUrl, " +
+            "h.previousPrice, h.price, h.recordedAt) " +
+            "FROM FavoriteHistory h JOIN Favorite f ON f.id = h.favoriteId " +
+            "WHERE h.recordedAt >= :since AND h.price < h.previousPrice " +
+            "ORDER BY h.recordedAt DESC")
+    List<PriceDrop> findPriceDropsSince(LocalDateTime since, Pageable pageable);
+}
@@ -0,0 +1,53 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Colonnes sélectionnables par les requêtes de liste (paramètre fields=).
+ * Les listes ne renvoient jamais l'entité complète : seul /api/favorites/{id} le fait.
+ */
+public final class FavoriteProjection {
+
+    // Ce dont la grille React a besoin pour afficher une carte
+    public static final List<String> GRID_FIELDS = List.of(
+            "id", "vintedId", "title", "brand", "category", "gender",
+            "price", "imageUrl", "productUrl", "sold", "size"
+    );
+
+    public static final Set<String> SELECTABLE_FIELDS = Set.of(
+            "id", "vintedId", "title", "brand", "category", "gender", "price",
+            "imageUrl", "productUrl", "listedDate", "sold", "sellerName",
+            "size", "condition", "favoriteOrder", "createdAt", "updatedAt",
+            "soldAt", "archived"
+    );
+
+    private FavoriteProjection() {
+    }
+
+    /**
+     * Transforme "title,price" en liste de champs validés ; l'id est toujours inclus
+     * pour que le client puisse éditer ou supprimer l'élément.
+     */
+    public static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return GRID_FIELDS;
+        }
+
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(field -> {
+                    if (!SELECTABLE_FIELDS.contains(field)) {
+                        throw new IllegalArgumentException("Champ inconnu: " + field);
+                    }
+                    selected.add(field);
+                });
+        return new ArrayList<>(selected);
+    }
+}
@@ -0,0 +1,22 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.dto.FavoriteFilter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Requêtes de liste qui ne sélectionnent que les colonnes demandées,
+ * sans hydrater d'entités Favorite dans le contexte de persistance.
+ */
+public interface FavoriteQueryRepository {
+
+    List<Map<String, Object>> findProjected(FavoriteFilter filter, List<String> fields, boolean descending);
+
+    /**
+     * Même requête lue par curseur : à consommer dans une transaction et à fermer après usage
+     */
+    Stream<Map<String, Object>> streamProjected(FavoriteFilter filter, List<String> fields, boolean descending,
+                                                int fetchSize);
+}
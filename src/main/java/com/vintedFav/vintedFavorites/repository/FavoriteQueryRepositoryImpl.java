@@ -0,0 +1,96 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.dto.FavoriteFilter;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteWithArchive;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class FavoriteQueryRepositoryImpl implements FavoriteQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findProjected(FavoriteFilter filter, List<String> fields, boolean descending) {
+        return buildQuery(filter, fields, descending).getResultList().stream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamProjected(FavoriteFilter filter, List<String> fields, boolean descending,
+                                                       int fetchSize) {
+        return buildQuery(filter, fields, descending)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(tuple -> toMap(tuple, fields));
+    }
+
+    private TypedQuery<Tuple> buildQuery(FavoriteFilter filter, List<String> fields, boolean descending) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        // Les deux entités exposent les mêmes attributs : seule la table lue change
+        Root<?> root = filter.isIncludeArchived()
+                ? query.from(FavoriteWithArchive.class)
+                : query.from(Favorite.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields) {
+            if ("archived".equals(field) && !filter.isIncludeArchived()) {
+                selections.add(cb.literal(Boolean.FALSE).alias(field));
+            } else {
+                selections.add(root.get(field).alias(field));
+            }
+        }
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (hasText(filter.getBrand())) {
+            predicates.add(cb.equal(cb.upper(root.<String>get("brand")), filter.getBrand().toUpperCase()));
+        }
+        if (hasText(filter.getGender())) {
+            predicates.add(cb.equal(cb.upper(root.<String>get("gender")), filter.getGender().toUpperCase()));
+        }
+        if (hasText(filter.getCategory())) {
+            predicates.add(cb.equal(cb.upper(root.<String>get("category")), filter.getCategory().toUpperCase()));
+        }
+        if (filter.getSold() != null) {
+            predicates.add(cb.equal(root.get("sold"), filter.getSold()));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        query.orderBy(descending
+                ? cb.desc(root.get("favoriteOrder"))
+                : cb.asc(root.get("favoriteOrder")));
+
+        return entityManager.createQuery(query);
+    }
+
+    private Map<String, Object> toMap(Tuple tuple, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
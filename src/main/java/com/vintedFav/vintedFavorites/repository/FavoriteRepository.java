@@ -1,31 +1,56 @@
 package com.vintedFav.vintedFavorites.repository;
 
 import com.vintedFav.vintedFavorites.model.Favorite;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+public interface FavoriteRepository extends JpaRepository<Favorite, Long>, FavoriteQueryRepository {
 
-    List<Favorite> findByBrand(String brand);
+    // IgnoreCase : upper(colonne) = upper(?), couvert par les index de V2__favorite_indexes.sql
+    List<Favorite> findByBrandIgnoreCase(String brand);
 
-    List<Favorite> findByGender(String gender);
+    List<Favorite> findByGenderIgnoreCase(String gender);
 
-    List<Favorite> findByCategory(String category);
+    List<Favorite> findByCategoryIgnoreCase(String category);
 
     List<Favorite> findBySold(Boolean sold);
 
-    List<Favorite> findByBrandAndGender(String brand, String gender);
+    List<Favorite> findByBrandIgnoreCaseAndGenderIgnoreCase(String brand, String gender);
 
+    // Requêtes mises en cache : invalidées par Hibernate dès qu'une transaction écrit dans favorites
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Favorite> findByVintedId(String vintedId);
 
+    List<Favorite> findByVintedIdIn(Collection<String> vintedIds);
+
     // Récupère tous les favoris triés par ordre d'ajout (ordre Vinted)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Favorite> findAllByOrderByFavoriteOrderAsc();
 
     // Récupère tous les favoris triés par ordre d'ajout inversé
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Favorite> findAllByOrderByFavoriteOrderDesc();
 
+    // Facette des marques : ne lit que la colonne brand
+    @Query("SELECT DISTINCT f.brand FROM Favorite f WHERE f.brand IS NOT NULL AND f.brand <> '' ORDER BY f.brand")
+    List<String> findDistinctBrands();
+
+    @Query("SELECT DISTINCT f.brand FROM FavoriteWithArchive f WHERE f.brand IS NOT NULL AND f.brand <> '' ORDER BY f.brand")
+    List<String> findDistinctBrandsIncludingArchived();
+
+    @Query(value = "SELECT image_url FROM favorites_archive WHERE id = :id", nativeQuery = true)
+    Optional<String> findArchivedImageUrl(Long id);
+
+    @Query(value = "SELECT vinted_id FROM favorites_archive WHERE vinted_id IN (:vintedIds)", nativeQuery = true)
+    List<String> findArchivedVintedIds(Collection<String> vintedIds);
+
 }
\ No newline at end of file
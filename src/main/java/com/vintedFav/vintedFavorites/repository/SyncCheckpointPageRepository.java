@@ -0,0 +1,21 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.vintedFav.vintedFavorites.model.SyncCheckpointPage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SyncCheckpointPageRepository extends JpaRepository<SyncCheckpointPage, Long> {
+
+    // Une page relue par une reprise suit les pages enregistrées sous le même numéro
+    List<SyncCheckpointPage> findByRunIdOrderByPageNumberAscIdAsc(String runId);
+
+    @Modifying
+    @Query("DELETE FROM SyncCheckpointPage p WHERE p.runId = :runId")
+    int deleteByRunId(@Param("runId") String runId);
+}
@@ -1,9 +1,12 @@
 package com.vintedFav.vintedFavorites.repository;
 
 import com.vintedFav.vintedFavorites.model.VintedCookie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,8 +15,10 @@ import java.util.Optional;
 @Repository
 public interface VintedCookieRepository extends JpaRepository<VintedCookie, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<VintedCookie> findByCookieName(String cookieName);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<VintedCookie> findByIsActiveTrue();
 
     List<VintedCookie> findByDomain(String domain);
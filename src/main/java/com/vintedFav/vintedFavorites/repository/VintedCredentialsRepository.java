@@ -1,9 +1,12 @@
 package com.vintedFav.vintedFavorites.repository;
 
 import com.vintedFav.vintedFavorites.model.VintedCredentials;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,6 +14,7 @@ import java.util.Optional;
 @Repository
 public interface VintedCredentialsRepository extends JpaRepository<VintedCredentials, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<VintedCredentials> findByIsActiveTrue();
 
     Optional<VintedCredentials> findByEmail(String email);
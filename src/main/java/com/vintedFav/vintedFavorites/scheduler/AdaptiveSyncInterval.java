@@ -0,0 +1,113 @@
+package com.vintedFav.vintedFavorites.scheduler;
+
+import com.vintedFav.vintedFavorites.dto.SyncScheduleDecision;
+import com.vintedFav.vintedFavorites.dto.SyncScheduleDecision.Outcome;
+import com.vintedFav.vintedFavorites.service.SyncResult;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Intervalle de la sync périodique, ajusté au rythme des changements observés :
+ * divisé quand une sync trouve des nouveaux, vendus ou prix modifiés, allongé sinon,
+ * borné par [min-interval, max-interval] et décalé d'un jitter aléatoire.
+ */
+@Component
+@Slf4j
+public class AdaptiveSyncInterval {
+
+    @Value("${vinted.sync.interval:1800000}")
+    private long initialIntervalMs;
+
+    @Value("${vinted.sync.min-interval:300000}")
+    private long minIntervalMs;
+
+    @Value("${vinted.sync.max-interval:7200000}")
+    private long maxIntervalMs;
+
+    @Value("${vinted.sync.speedup-factor:0.5}")
+    private double speedupFactor;
+
+    @Value("${vinted.sync.slowdown-factor:1.5}")
+    private double slowdownFactor;
+
+    @Value("${vinted.sync.jitter:0.1}")
+    private double jitter;
+
+    @Value("${vinted.sync.decision-history:50}")
+    private int decisionHistory;
+
+    private long intervalMs;
+    private final Deque<SyncScheduleDecision> decisions = new ArrayDeque<>();
+
+    @PostConstruct
+    void init() {
+        intervalMs = clamp(initialIntervalMs);
+    }
+
+    /**
+     * Délai avant la première sync périodique (l'intervalle initial, avec jitter)
+     */
+    public synchronized Duration initialDelay() {
+        return Duration.ofMillis(withJitter(intervalMs));
+    }
+
+    public synchronized Duration afterSync(SyncResult result) {
+        int sold = result.getNewlySold().size();
+        boolean active = result.getNewCount() > 0 || sold > 0 || result.getRepricedCount() > 0;
+        long next = clamp(Math.round(intervalMs * (active ? speedupFactor : slowdownFactor)));
+        return decide(active ? Outcome.ACTIVE : Outcome.QUIET, result.getNewCount(), sold, result.getRepricedCount(), next);
+    }
+
+    public synchronized Duration afterFailure() {
+        return decide(Outcome.FAILED, 0, 0, 0, intervalMs);
+    }
+
+    public synchronized Duration afterSkip() {
+        return decide(Outcome.SKIPPED, 0, 0, 0, intervalMs);
+    }
+
+    public synchronized long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public synchronized List<SyncScheduleDecision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    private Duration decide(Outcome outcome, int newCount, int sold, int repriced, long nextIntervalMs) {
+        long delay = withJitter(nextIntervalMs);
+        LocalDateTime now = LocalDateTime.now();
+        SyncScheduleDecision decision = new SyncScheduleDecision(now, outcome, newCount, sold, repriced,
+                intervalMs, nextIntervalMs, delay, now.plus(Duration.ofMillis(delay)));
+
+        decisions.addFirst(decision);
+        while (decisions.size() > Math.max(decisionHistory, 1)) {
+            decisions.removeLast();
+        }
+        log.info("Planification sync: {} ({} nouveaux, {} vendus, {} prix) -> intervalle {} min (était {}), prochaine dans {} s",
+                outcome, newCount, sold, repriced, nextIntervalMs / 60000, intervalMs / 60000, delay / 1000);
+
+        intervalMs = nextIntervalMs;
+        return Duration.ofMillis(delay);
+    }
+
+    private long clamp(long value) {
+        return Math.min(Math.max(value, minIntervalMs), Math.max(maxIntervalMs, minIntervalMs));
+    }
+
+    private long withJitter(long value) {
+        double spread = Math.max(0, Math.min(jitter, 0.5));
+        double factor = spread == 0 ? 1 : 1 + ThreadLocalRandom.current().nextDouble(-spread, spread);
+        return Math.max(1000, Math.round(value * factor));
+    }
+}
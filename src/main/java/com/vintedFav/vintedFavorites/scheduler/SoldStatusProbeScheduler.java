@@ -0,0 +1,37 @@
+package com.vintedFav.vintedFavorites.scheduler;
+
+import com.vintedFav.vintedFavorites.service.LeaderElection;
+import com.vintedFav.vintedFavorites.service.SyncCoordinator;
+import com.vintedFav.vintedFavorites.service.VintedApiService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sonde du statut vendu à intervalle fixe, bien plus court que celui de la sync :
+ * les favoris vendus sont marqués en quelques minutes sans relire toute la liste.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SoldStatusProbeScheduler {
+
+    private final SyncCoordinator syncCoordinator;
+    private final VintedApiService vintedApiService;
+    private final LeaderElection leaderElection;
+
+    @Value("${vinted.probe.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(initialDelayString = "${vinted.probe.initial-delay:120000}", fixedDelayString = "${vinted.probe.interval:300000}")
+    public void scheduledProbe() {
+        // Pas de login Playwright pour une sonde : elle attend la prochaine sync
+        if (!enabled || !leaderElection.isLeader() || !vintedApiService.isSessionValid()) {
+            return;
+        }
+        syncCoordinator.startProbe("scheduled")
+                .ifPresent(job -> log.debug("Sonde périodique: job {}", job.getId()));
+    }
+}
@@ -1,7 +1,8 @@
 package com.vintedFav.vintedFavorites.scheduler;
 
+import com.vintedFav.vintedFavorites.service.LeaderElection;
+import com.vintedFav.vintedFavorites.service.SyncCoordinator;
 import com.vintedFav.vintedFavorites.service.VintedApiService;
-import com.vintedFav.vintedFavorites.service.VintedAuthService;
 import com.vintedFav.vintedFavorites.service.VintedCookieService;
 import com.vintedFav.vintedFavorites.service.VintedSessionService;
 import lombok.RequiredArgsConstructor;
@@ -9,10 +10,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
-import java.util.concurrent.CompletableFuture;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Component
 @RequiredArgsConstructor
@@ -21,8 +27,13 @@ public class VintedSyncScheduler {
 
     private final VintedApiService vintedApiService;
     private final VintedCookieService cookieService;
-    private final VintedAuthService authService;
     private final VintedSessionService sessionService;
+    private final SyncCoordinator syncCoordinator;
+    private final AdaptiveSyncInterval syncInterval;
+    private final TaskScheduler taskScheduler;
+    private final LeaderElection leaderElection;
+
+    private volatile Instant nextRunAt;
 
     @Value("${vinted.sync.enabled:true}")
     private boolean syncEnabled;
@@ -57,30 +68,30 @@ public class VintedSyncScheduler {
             cookieService.saveAllCookiesFromRawString(initialCookies, "vinted.fr");
         }
 
-        if (!syncEnabled || !syncOnStartup) {
+        if (!syncEnabled) {
+            log.info("Sync au démarrage désactivé");
+            return;
+        }
+        if (!syncOnStartup) {
             log.info("Sync au démarrage désactivé");
+            scheduleNext(syncInterval.initialDelay());
+            return;
+        }
+        if (!leaderElection.isLeader()) {
+            log.info("Sync au démarrage laissée à l'instance leader");
+            scheduleNext(syncInterval.initialDelay());
             return;
         }
 
-        // Vérifier si on a des cookies valides
-        if (vintedApiService.isSessionValid()) {
-            // Session valide, lancer la sync directement
-            startSync();
-        } else if (sessionService.hasCredentials()) {
-            // Pas de cookies valides mais on a des credentials -> login automatique
-            log.info("Session invalide - tentative de login automatique via Playwright...");
-            sessionService.refreshSession()
-                    .thenAccept(success -> {
-                        if (success) {
-                            log.info("Login automatique réussi !");
-                            startSync();
-                        } else {
-                            log.error("Échec du login automatique - vérifiez vos identifiants");
-                        }
-                    });
+        // Cookies valides, ou credentials pour un login automatique (fait par le coordinateur)
+        if (vintedApiService.isSessionValid() || sessionService.hasCredentials()) {
+            // Premier résultat vu par l'intervalle adaptatif : la sync périodique suivante est planifiée d'après lui
+            log.info("Lancement sync + enrichissement au démarrage");
+            performSync("startup");
         } else {
             log.warn("Aucune méthode d'authentification configurée !");
             log.warn("Configurez VINTED_EMAIL + VINTED_PASSWORD ou VINTED_COOKIES dans .env");
+            scheduleNext(syncInterval.initialDelay());
         }
     }
 
@@ -99,41 +110,55 @@ public class VintedSyncScheduler {
         }
     }
 
-    private void startSync() {
-        if (!vintedApiService.isSessionValid()) {
-            log.error("Session invalide - vérifiez vos cookies");
-            return;
+    /**
+     * Sync périodique : chaque exécution planifie la suivante selon l'intervalle adaptatif
+     * (AdaptiveSyncInterval), une fois la sync terminée. Rejoint la sync en cours s'il y en a une.
+     * Seule l'instance leader synchronise ; les autres gardent leur planification pour prendre le relais.
+     */
+    public void scheduledSync() {
+        try {
+            // Le refresh du token / de la session est fait par le coordinateur avant la sync
+            if (!leaderElection.isLeader()) {
+                scheduleNext(syncInterval.afterSkip());
+            } else if (vintedApiService.isSessionValid() || sessionService.hasCredentials()) {
+                log.info("=== SYNC PÉRIODIQUE ===");
+                performSync("scheduled");
+            } else {
+                scheduleNext(syncInterval.afterSkip());
+            }
+        } catch (RuntimeException e) {
+            log.error("Erreur sync périodique: {}", e.getMessage());
+            scheduleNext(syncInterval.afterFailure());
         }
-
-        log.info("Lancement sync + enrichissement...");
-        vintedApiService.syncAllFavorites()
-                .doOnSuccess(count -> log.info("=== INITIALISATION TERMINÉE: {} favoris ===", count))
-                .doOnError(e -> log.error("Erreur sync: {}", e.getMessage()))
-                .subscribe();
     }
 
-    @Scheduled(fixedRateString = "${vinted.sync.interval:1800000}", initialDelay = 1800000)
-    public void scheduledSync() {
-        if (!syncEnabled) {
-            return;
-        }
+    /**
+     * Lance la sync (ou rejoint celle en cours) et planifie la suivante d'après son résultat
+     */
+    private void performSync(String trigger) {
+        syncCoordinator.runSync(trigger)
+                .map(syncInterval::afterSync)
+                .onErrorResume(e -> {
+                    log.error("Erreur sync ({}): {}", trigger, e.getMessage());
+                    return Mono.fromSupplier(syncInterval::afterFailure);
+                })
+                .switchIfEmpty(Mono.fromSupplier(syncInterval::afterSkip))
+                .subscribe(this::scheduleNext);
+    }
 
-        // Vérifier et rafraîchir le token si nécessaire
-        if (authService.isAccessTokenExpired() && sessionService.hasCredentials()) {
-            log.info("Token expiré - refresh avant sync périodique...");
-            sessionService.refreshSession()
-                    .thenAccept(success -> {
-                        if (success) {
-                            performSync();
-                        }
-                    });
-        } else if (vintedApiService.isSessionValid()) {
-            performSync();
+    private void scheduleNext(Duration delay) {
+        Instant at = Instant.now().plus(delay);
+        try {
+            taskScheduler.schedule(this::scheduledSync, at);
+            nextRunAt = at;
+        } catch (TaskRejectedException e) {
+            // Arrêt de l'application en cours : plus de sync à planifier
+            log.debug("Sync périodique non replanifiée: {}", e.getMessage());
         }
     }
 
-    private void performSync() {
-        log.info("=== SYNC PÉRIODIQUE ===");
-        vintedApiService.syncAllFavorites().subscribe();
+    public LocalDateTime getNextRunAt() {
+        Instant at = nextRunAt;
+        return at != null ? LocalDateTime.ofInstant(at, ZoneId.systemDefault()) : null;
     }
 }
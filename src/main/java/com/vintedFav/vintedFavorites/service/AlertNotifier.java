@@ -0,0 +1,19 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Alert;
+
+/**
+ * Destination des alertes déclenchées : tout bean qui implémente cette interface est appelé
+ * par AlertOutboxSink une fois la sync commitée. Après un échec, le lot est relivré à tous
+ * les notificateurs (au moins une fois) : dédoublonner sur l'id de l'alerte si besoin.
+ */
+public interface AlertNotifier {
+
+    String name();
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    void notify(Alert alert) throws Exception;
+}
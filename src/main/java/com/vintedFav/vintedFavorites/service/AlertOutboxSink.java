@@ -0,0 +1,64 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vintedFav.vintedFavorites.model.Alert;
+import com.vintedFav.vintedFavorites.model.OutboxEvent;
+import com.vintedFav.vintedFavorites.repository.AlertRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Livre les événements alert.fired de l'outbox aux AlertNotifier actifs.
+ * Les alertes sont écrites dans la transaction de la sync : aucune n'est perdue si l'application s'arrête avant l'envoi.
+ */
+@Component
+public class AlertOutboxSink implements OutboxSink {
+
+    private final List<AlertNotifier> notifiers;
+    private final AlertRepository alertRepository;
+    private final ObjectMapper objectMapper;
+
+    public AlertOutboxSink(List<AlertNotifier> notifiers, AlertRepository alertRepository, ObjectMapper objectMapper) {
+        this.notifiers = notifiers;
+        this.alertRepository = alertRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "alerts";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return notifiers.stream().anyMatch(AlertNotifier::isEnabled);
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws Exception {
+        List<Long> alertIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (OutboxEvent.ALERT_FIRED.equals(event.getEventType())) {
+                alertIds.add(objectMapper.readTree(event.getPayload()).path("alertId").asLong());
+            }
+        }
+        if (alertIds.isEmpty()) {
+            return;
+        }
+
+        // Alerte absente : règle supprimée entre-temps (suppression en cascade), rien à notifier
+        List<Alert> alerts = alertRepository.findAllById(alertIds).stream()
+                .sorted(Comparator.comparing(Alert::getId))
+                .toList();
+        for (Alert alert : alerts) {
+            for (AlertNotifier notifier : notifiers) {
+                if (notifier.isEnabled()) {
+                    notifier.notify(alert);
+                }
+            }
+        }
+    }
+}
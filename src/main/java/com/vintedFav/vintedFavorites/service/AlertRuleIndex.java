@@ -0,0 +1,80 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.AlertRule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Règles actives indexées par marque, catégorie et taille (comparaison sans casse).
+ * Instantané immuable : reconstruit à chaque modification des règles.
+ */
+final class AlertRuleIndex {
+
+    private final AttributeIndex brands;
+    private final AttributeIndex categories;
+    private final AttributeIndex sizes;
+    private final int size;
+
+    AlertRuleIndex(Collection<AlertRule> rules) {
+        this.brands = new AttributeIndex(rules, AlertRule::getBrand);
+        this.categories = new AttributeIndex(rules, AlertRule::getCategory);
+        this.sizes = new AttributeIndex(rules, AlertRule::getSize);
+        this.size = rules.size();
+    }
+
+    /**
+     * Règles dont chaque filtre est vide ou égal à l'attribut du favori
+     */
+    Set<AlertRule> match(String brand, String category, String size) {
+        Set<AlertRule> candidates = brands.candidates(brand);
+        if (!candidates.isEmpty()) {
+            candidates.retainAll(categories.candidates(category));
+        }
+        if (!candidates.isEmpty()) {
+            candidates.retainAll(sizes.candidates(size));
+        }
+        return candidates;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static String key(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class AttributeIndex {
+        private final Map<String, List<AlertRule>> byValue = new HashMap<>();
+        // Règles sans filtre sur cet attribut
+        private final List<AlertRule> any = new ArrayList<>();
+
+        private AttributeIndex(Collection<AlertRule> rules, Function<AlertRule, String> attribute) {
+            for (AlertRule rule : rules) {
+                String value = key(attribute.apply(rule));
+                if (value == null) {
+                    any.add(rule);
+                } else {
+                    byValue.computeIfAbsent(value, v -> new ArrayList<>()).add(rule);
+                }
+            }
+        }
+
+        private Set<AlertRule> candidates(String value) {
+            Set<AlertRule> candidates = new LinkedHashSet<>(any);
+            String lookup = key(value);
+            if (lookup != null) {
+                candidates.addAll(byValue.getOrDefault(lookup, List.of()));
+            }
+            return candidates;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Alert;
+import com.vintedFav.vintedFavorites.model.AlertRule;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.repository.AlertRepository;
+import com.vintedFav.vintedFavorites.repository.AlertRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Règles d'alerte et alertes déclenchées. La sync ne soumet que les favoris dont le prix a baissé
+ * ou qui sont redevenus disponibles ; seules les règles de l'index correspondant à leurs attributs sont évaluées.
+ * L'index est propre à chaque instance : la version partagée des règles (dataset_version) dit quand le reconstruire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertService {
+
+    private static final int MAX_ALERTS = 500;
+
+    private final AlertRuleRepository ruleRepository;
+    private final AlertRepository alertRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Chargé au premier usage, remplacé à chaque modification des règles
+    private volatile AlertRuleIndex index;
+    // Version partagée des règles vue au dernier refreshRules
+    private Long rulesVersion;
+
+    public List<AlertRule> getRules() {
+        return ruleRepository.findAll();
+    }
+
+    public AlertRule saveRule(AlertRule rule) {
+        validate(rule);
+        AlertRule saved = ruleRepository.save(rule);
+        rulesChanged();
+        return saved;
+    }
+
+    public boolean deleteRule(Long id) {
+        if (!ruleRepository.existsById(id)) {
+            return false;
+        }
+        ruleRepository.deleteById(id);
+        rulesChanged();
+        return true;
+    }
+
+    public Optional<AlertRule> getRule(Long id) {
+        return ruleRepository.findById(id);
+    }
+
+    public List<Alert> getAlerts(Long ruleId, int limit) {
+        PageRequest page = PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_ALERTS));
+        return ruleId != null
+                ? alertRepository.findByRuleIdOrderByFiredAtDescIdDesc(ruleId, page)
+                : alertRepository.findAllByOrderByFiredAtDescIdDesc(page);
+    }
+
+    /**
+     * Appelé par la sync avant d'évaluer ses favoris : l'index est reconstruit si les règles ont changé
+     * depuis, sur cette instance ou sur une autre
+     */
+    public synchronized void refreshRules() {
+        Long shared = readRulesVersion();
+        if (shared == null || !shared.equals(rulesVersion)) {
+            index = null;
+            rulesVersion = shared;
+        }
+    }
+
+    /**
+     * Alertes déclenchées par le changement d'un favori (non enregistrées : la sync les écrit dans sa transaction)
+     * @param previousPrice prix avant la sync, null pour un favori nouveau en base
+     * @param previousSold statut vendu avant la sync
+     */
+    public List<Alert> evaluate(Favorite favorite, Double previousPrice, Boolean previousSold, LocalDateTime now) {
+        boolean priceDropped = previousPrice != null && favorite.getPrice() != null && favorite.getPrice() < previousPrice;
+        boolean backInStock = Boolean.TRUE.equals(previousSold) && !Boolean.TRUE.equals(favorite.getSold());
+        if (!priceDropped && !backInStock) {
+            return List.of();
+        }
+
+        List<Alert> alerts = new ArrayList<>();
+        for (AlertRule rule : index().match(favorite.getBrand(), favorite.getCategory(), favorite.getSize())) {
+            boolean fired = rule.getType() == AlertRule.Type.PRICE_DROP
+                    ? priceDropped && meetsThresholds(rule, favorite.getPrice(), previousPrice)
+                    : backInStock;
+            if (fired) {
+                alerts.add(new Alert(null, rule.getId(), rule.getType(), favorite.getId(), favorite.getVintedId(),
+                        favorite.getTitle(), favorite.getPrice(), previousPrice, now));
+            }
+        }
+        return alerts;
+    }
+
+    private static boolean meetsThresholds(AlertRule rule, double price, double previousPrice) {
+        if (rule.getMaxPrice() != null && price > rule.getMaxPrice()) {
+            return false;
+        }
+        double dropPercent = (previousPrice - price) * 100 / previousPrice;
+        return rule.getMinDropPercent() == null || dropPercent >= rule.getMinDropPercent();
+    }
+
+    private void rulesChanged() {
+        index = null;
+        try {
+            jdbcTemplate.update("UPDATE dataset_version SET version = version + 1 WHERE name = 'alert_rules'");
+        } catch (DataAccessException e) {
+            log.warn("Version partagée des règles non incrémentée: {}", e.getMessage());
+        }
+    }
+
+    private Long readRulesVersion() {
+        try {
+            return jdbcTemplate.queryForObject("SELECT version FROM dataset_version WHERE name = 'alert_rules'", Long.class);
+        } catch (DataAccessException e) {
+            log.debug("Version partagée des règles illisible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private AlertRuleIndex index() {
+        AlertRuleIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new AlertRuleIndex(ruleRepository.findByEnabledTrue());
+                    index = current;
+                    log.debug("Index des règles d'alerte reconstruit: {} règles actives", current.size());
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void validate(AlertRule rule) {
+        if (rule.getName() == null || rule.getName().isBlank()) {
+            throw new IllegalArgumentException("Le nom de la règle est obligatoire");
+        }
+        if (rule.getType() == null) {
+            throw new IllegalArgumentException("Le type de la règle est obligatoire (PRICE_DROP ou BACK_IN_STOCK)");
+        }
+        if (rule.getMaxPrice() != null && rule.getMaxPrice() <= 0) {
+            throw new IllegalArgumentException("maxPrice doit être positif");
+        }
+        if (rule.getMinDropPercent() != null && (rule.getMinDropPercent() <= 0 || rule.getMinDropPercent() >= 100)) {
+            throw new IllegalArgumentException("minDropPercent doit être compris entre 0 et 100");
+        }
+        if (rule.getEnabled() == null) {
+            rule.setEnabled(true);
+        }
+    }
+}
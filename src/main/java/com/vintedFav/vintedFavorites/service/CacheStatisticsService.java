@@ -0,0 +1,89 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.VintedCookie;
+import com.vintedFav.vintedFavorites.model.VintedCredentials;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistiques et invalidation du cache de second niveau Hibernate
+ */
+@Service
+@Slf4j
+public class CacheStatisticsService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Hits / misses / puts par région, plus les compteurs globaux du cache de requêtes
+     */
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> regions = new LinkedHashMap<>();
+
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, counters(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("secondLevel", counters(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        result.put("queries", counters(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        result.put("regions", regions);
+        return result;
+    }
+
+    /**
+     * À appeler après une écriture JDBC sur favorites : Hibernate ne la voit pas et resservirait d'anciennes lignes
+     */
+    public void evictFavorites() {
+        sessionFactory.getCache().evictEntityData(Favorite.class);
+        sessionFactory.getCache().evictQueryRegions();
+        log.debug("Cache de second niveau des favoris vidé");
+    }
+
+    /**
+     * Comme evictFavorites, limité aux favoris réécrits ; les requêtes en cache peuvent toutes les renvoyer
+     */
+    public void evictFavorites(Collection<Long> favoriteIds) {
+        favoriteIds.forEach(id -> sessionFactory.getCache().evictEntityData(Favorite.class, id));
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    /**
+     * Cookies et identifiants relus en base : une autre instance a pu renouveler la session
+     */
+    public void evictVintedSession() {
+        sessionFactory.getCache().evictEntityData(VintedCookie.class);
+        sessionFactory.getCache().evictEntityData(VintedCredentials.class);
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    private Map<String, Object> counters(long hits, long misses, long puts) {
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("hits", hits);
+        counters.put("misses", misses);
+        counters.put("puts", puts);
+        long lookups = hits + misses;
+        counters.put("hitRatio", lookups > 0 ? (double) hits / lookups : 0.0);
+        return counters;
+    }
+}
@@ -0,0 +1,218 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.config.DatabaseVendor;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Verrous partagés par toutes les instances de l'application : verrous consultatifs PostgreSQL
+ * (pg_try_advisory_lock), chacun tenu par sa propre connexion jusqu'à sa libération. PostgreSQL les relâche
+ * de lui-même si l'instance meurt. Sous H2 (profil embedded, une seule instance), simples verrous en mémoire.
+ * <p>
+ * Les connexions des verrous viennent d'un petit pool dédié (cluster-locks) et non du pool Hikari principal :
+ * un verrou reste tenu pendant toute la sync ou tout l'enrichissement, et cinq verrous tenus à la fois
+ * (leader, sync, enrichment, probe, session-refresh) priveraient de connexions les transactions de ces mêmes jobs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterLockService {
+
+    // Premier entier de pg_advisory_lock(int, int) : isole nos verrous de ceux d'autres applications sur la base
+    private static final int KEY_SPACE = 0x56464156;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseVendor databaseVendor;
+    private final Scheduler jdbcScheduler;
+
+    // Une connexion par nom de verrou tenu en même temps sur une instance
+    @Value("${vinted.cluster.lock-pool-size:6}")
+    private int lockPoolSize;
+
+    private volatile HikariDataSource lockDataSource;
+
+    private final Set<String> localLocks = ConcurrentHashMap.newKeySet();
+    private final Map<String, ReentrantLock> transactionLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Prend le verrou sans attendre ; vide s'il est tenu (par une autre instance, ou déjà par celle-ci).
+     * Appel bloquant : hors event loop.
+     */
+    public Optional<ClusterLock> tryLock(String name) {
+        if (!databaseVendor.isPostgres()) {
+            return localLocks.add(name) ? Optional.of(new ClusterLock(name, null)) : Optional.empty();
+        }
+
+        Connection connection = null;
+        try {
+            connection = lockDataSource().getConnection();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+                statement.setInt(1, KEY_SPACE);
+                statement.setInt(2, name.hashCode());
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        return Optional.of(new ClusterLock(name, connection));
+                    }
+                }
+            }
+            connection.close();
+            return Optional.empty();
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new IllegalStateException("Verrou '" + name + "' impossible à prendre: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Exécute work en tenant le verrou, libéré à la fin, en erreur comme à l'annulation.
+     * Échoue immédiatement (LockBusyException) si le verrou est tenu ailleurs.
+     */
+    public <T> Mono<T> withLock(String name, Supplier<Mono<T>> work) {
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> tryLock(name).orElseThrow(() -> new LockBusyException(name)))
+                        .subscribeOn(jdbcScheduler),
+                lock -> work.get(),
+                lock -> Mono.fromRunnable(lock::close).subscribeOn(jdbcScheduler));
+    }
+
+    /**
+     * Verrou tenu jusqu'à la fin de la transaction en cours (commit ou rollback), attendu s'il est pris :
+     * les transactions qui le prennent sont validées l'une après l'autre, quelle que soit l'instance.
+     */
+    public void lockForTransaction(String name) {
+        if (databaseVendor.isPostgres()) {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?, ?)", KEY_SPACE, name.hashCode());
+            return;
+        }
+
+        ReentrantLock lock = transactionLocks.computeIfAbsent(name, key -> new ReentrantLock());
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Pool des sessions de verrou, créé au premier verrou pris (jamais sous H2)
+     */
+    private HikariDataSource lockDataSource() {
+        HikariDataSource pool = lockDataSource;
+        if (pool == null) {
+            synchronized (this) {
+                pool = lockDataSource;
+                if (pool == null) {
+                    pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+                    pool.setPoolName("cluster-locks");
+                    pool.setMaximumPoolSize(lockPoolSize);
+                    pool.setMinimumIdle(0);
+                    pool.setConnectionTimeout(5000);
+                    lockDataSource = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public void closeLockDataSource() {
+        HikariDataSource pool = lockDataSource;
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Fermeture de connexion: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Verrou déjà tenu, par une autre instance ou par celle-ci
+     */
+    public static class LockBusyException extends IllegalStateException {
+        public LockBusyException(String name) {
+            super("Déjà en cours sur une autre instance (" + name + ")");
+        }
+    }
+
+    /**
+     * Verrou tenu ; close() le libère (une seule fois)
+     */
+    public class ClusterLock implements AutoCloseable {
+        private final String name;
+        private final Connection connection;
+        private boolean released;
+
+        private ClusterLock(String name, Connection connection) {
+            this.name = name;
+            this.connection = connection;
+        }
+
+        /**
+         * Faux si la connexion qui tient le verrou est perdue : PostgreSQL l'a alors déjà relâché
+         */
+        public synchronized boolean isHeld() {
+            if (released) {
+                return false;
+            }
+            try {
+                return connection == null || connection.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (connection == null) {
+                localLocks.remove(name);
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+                statement.setInt(1, KEY_SPACE);
+                statement.setInt(2, name.hashCode());
+                statement.execute();
+            } catch (SQLException e) {
+                // Connexion perdue : le verrou est parti avec la session
+                log.debug("Libération du verrou {}: {}", name, e.getMessage());
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
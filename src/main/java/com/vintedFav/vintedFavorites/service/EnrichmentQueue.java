@@ -0,0 +1,139 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * File de l'enrichissement : d'abord les favoris demandés par l'interface (POST /api/favorites/{id}/enrich),
+ * dans l'ordre des demandes, puis le rattrapage du favori le plus récent au plus ancien.
+ * Un favori n'y figure qu'une fois ; chaque tâche rend le favori enrichi à qui l'attend.
+ */
+@Component
+public class EnrichmentQueue {
+
+    private static final Comparator<Task> PRIORITY = Comparator
+            .comparing((Task task) -> !task.interactive)
+            .thenComparingLong(task -> task.interactive ? task.sequence : 0)
+            // favorite_order croissant : 0 = ajouté en dernier aux favoris Vinted
+            .thenComparing(task -> task.favorite.getFavoriteOrder(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Task::getFavoriteId, Comparator.reverseOrder());
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(PRIORITY);
+    private final Map<Long, Task> queued = new HashMap<>();
+    private final Map<Long, Task> inFlight = new HashMap<>();
+    private long sequence;
+
+    /**
+     * Place un favori en tête de file (derrière les demandes précédentes) ; une tâche déjà en file
+     * ou en cours est réutilisée.
+     */
+    public synchronized CompletableFuture<Favorite> submitInteractive(Favorite favorite) {
+        Task running = inFlight.get(favorite.getId());
+        if (running != null) {
+            return running.result;
+        }
+
+        Task task = queued.get(favorite.getId());
+        if (task == null) {
+            task = new Task(favorite);
+            queued.put(favorite.getId(), task);
+        } else if (!task.interactive) {
+            queue.remove(task);
+        } else {
+            return task.result;
+        }
+        task.interactive = true;
+        task.sequence = ++sequence;
+        queue.add(task);
+        return task.result;
+    }
+
+    /**
+     * Ajoute au rattrapage les favoris absents de la file
+     * @return nombre de favoris ajoutés
+     */
+    public synchronized int offerBackfill(List<Favorite> favorites) {
+        int added = 0;
+        for (Favorite favorite : favorites) {
+            if (queued.containsKey(favorite.getId()) || inFlight.containsKey(favorite.getId())) {
+                continue;
+            }
+            Task task = new Task(favorite);
+            queued.put(favorite.getId(), task);
+            queue.add(task);
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Prochaine tâche à traiter, ou null si la file est vide
+     */
+    public synchronized Task poll() {
+        Task task = queue.poll();
+        if (task != null) {
+            queued.remove(task.getFavoriteId());
+            inFlight.put(task.getFavoriteId(), task);
+        }
+        return task;
+    }
+
+    public synchronized void complete(Task task, Favorite enriched) {
+        inFlight.remove(task.getFavoriteId());
+        task.result.complete(enriched);
+    }
+
+    public synchronized void fail(Task task, Throwable error) {
+        inFlight.remove(task.getFavoriteId());
+        task.result.completeExceptionally(error);
+    }
+
+    /**
+     * Enrichissement interrompu : les tâches restantes échouent plutôt que d'attendre indéfiniment
+     */
+    public synchronized void failAll(Throwable error) {
+        queue.forEach(task -> task.result.completeExceptionally(error));
+        inFlight.values().forEach(task -> task.result.completeExceptionally(error));
+        queue.clear();
+        queued.clear();
+        inFlight.clear();
+    }
+
+    public synchronized boolean hasInteractive() {
+        Task next = queue.peek();
+        return next != null && next.interactive;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public static class Task {
+        @Getter
+        private final Favorite favorite;
+        private final CompletableFuture<Favorite> result = new CompletableFuture<>();
+        @Getter
+        private boolean interactive;
+        private long sequence;
+
+        private Task(Favorite favorite) {
+            this.favorite = favorite;
+        }
+
+        public Long getFavoriteId() {
+            return favorite.getId();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Écriture différée des résultats de l'enrichissement : au lieu d'une transaction par favori, les résultats
+ * sont regroupés et écrits en un seul lot JDBC (catégorie et genre des favoris, détails) tous les flush-size
+ * favoris, toutes les flush-interval ms, à la fin de l'enrichissement et à l'arrêt de l'application.
+ * Une demande de l'interface est écrite aussitôt, avant de répondre, et un échec d'écriture lui est renvoyé ;
+ * pour le rattrapage, un lot en échec est seulement journalisé (ses favoris repartiront au prochain enrichissement).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EnrichmentWriteBuffer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FavoriteDetailsService detailsService;
+    private final FavoriteDatasetVersion datasetVersion;
+    private final FavoriteEventService eventService;
+    private final CacheStatisticsService cacheService;
+
+    @Value("${vinted.api.enrichment-flush-size:20}")
+    private int flushSize;
+
+    // Un seul favori enrichi par id en attente : un résultat plus récent remplace le précédent
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    // Deux écritures ne se croisent pas : les lots partent en base dans l'ordre
+    private final Object flushLock = new Object();
+    private volatile boolean closed;
+
+    /**
+     * @param favorite      favori avec la catégorie et le genre lus sur sa page
+     * @param classified    vrai si catégorie ou genre ont changé (seuls ceux-là réécrivent la ligne favorites)
+     * @param immediate     écrit tout le tampon avant de rendre la main (demande de l'interface)
+     * @throws DataAccessException si immediate et que l'écriture a échoué
+     */
+    public void add(Favorite favorite, boolean classified, FavoriteDetails details, boolean immediate) {
+        if (immediate) {
+            // flushLock pris avant d'entrer dans le tampon : aucune écriture concurrente ne peut emporter
+            // ce résultat, c'est bien cet appel qui l'écrit et qui voit son échec
+            synchronized (flushLock) {
+                enqueue(favorite, classified, details);
+                flush();
+            }
+            return;
+        }
+
+        int size = enqueue(favorite, classified, details);
+        if (closed || size >= flushSize) {
+            flushQuietly();
+        }
+    }
+
+    private synchronized int enqueue(Favorite favorite, boolean classified, FavoriteDetails details) {
+        details.setFavoriteId(favorite.getId());
+        pending.put(favorite.getId(), new Pending(favorite, classified, details));
+        return pending.size();
+    }
+
+    /**
+     * Favoris enrichis pas encore écrits : à ne pas remettre en file d'enrichissement
+     */
+    public synchronized Set<Long> getPendingIds() {
+        return Set.copyOf(pending.keySet());
+    }
+
+    @Scheduled(initialDelayString = "${vinted.api.enrichment-flush-interval:15000}",
+            fixedDelayString = "${vinted.api.enrichment-flush-interval:15000}")
+    public void scheduledFlush() {
+        flushQuietly();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        flushQuietly();
+    }
+
+    /**
+     * Appel bloquant (base de données) : hors event loop
+     * @throws DataAccessException si le lot n'a pas pu être écrit (il n'est pas remis en tampon)
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Pending> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            write(batch);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            // Déjà journalisé par write
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Favorite> classified = batch.stream().filter(p -> p.classified).map(p -> p.favorite).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                jdbcTemplate.batchUpdate("UPDATE favorites SET category = ?, gender = ?, updated_at = ? WHERE id = ?",
+                        classified, classified.size(), (ps, favorite) -> {
+                            ps.setString(1, favorite.getCategory());
+                            ps.setString(2, favorite.getGender());
+                            ps.setObject(3, now);
+                            ps.setObject(4, favorite.getId());
+                        });
+                detailsService.saveAllDetails(batch.stream().map(p -> p.details).toList());
+            });
+        } catch (DataAccessException e) {
+            // Pas de détails en base : ces favoris repartiront au prochain enrichissement
+            log.error("Écriture de {} favoris enrichis impossible: {}", batch.size(), e.getMessage());
+            throw e;
+        }
+        log.debug("{} favoris enrichis écrits ({} reclassés)", batch.size(), classified.size());
+
+        if (!classified.isEmpty()) {
+            // Écriture JDBC : Hibernate garderait l'ancienne catégorie en cache de second niveau
+            cacheService.evictFavorites(classified.stream().map(Favorite::getId).toList());
+            datasetVersion.increment();
+            classified.forEach(eventService::favoriteEnriched);
+        }
+    }
+
+    private static class Pending {
+        private final Favorite favorite;
+        private final boolean classified;
+        private final FavoriteDetails details;
+
+        private Pending(Favorite favorite, boolean classified, FavoriteDetails details) {
+            this.favorite = favorite;
+            this.classified = classified;
+            this.details = details;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.vintedFav.vintedFavorites.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Déplace les favoris vendus depuis plus de N jours de favorites vers favorites_archive (et leurs détails
+ * vers favorite_details_archive), pour que la table lue par la grille ne contienne que l'ensemble « chaud ».
+ * Un favori archivé redevenu disponible (sync, import) en ressort avec ses détails, voir restoreRevived.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteArchiveService {
+
+    private static final String COLUMNS = """
+            id, vinted_id, title, brand, category, gender, price, image_url, product_url, listed_date, sold,
+            seller_name, size, condition, favorite_order, created_at, updated_at, sold_at""";
+    private static final String DETAILS_COLUMNS = """
+            favorite_id, description, photo_urls, favourite_count, view_count, seller_rating, seller_review_count,
+            fetched_at""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheStatisticsService cacheService;
+    private final FavoriteDatasetVersion datasetVersion;
+    private final LeaderElection leaderElection;
+
+    @Value("${vinted.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vinted.archive.sold-after-days:30}")
+    private int soldAfterDays;
+
+    @Value("${vinted.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${vinted.archive.cron:0 15 4 * * *}")
+    public void scheduledArchive() {
+        if (enabled && leaderElection.isLeader()) {
+            archiveSoldFavorites();
+        }
+    }
+
+    /**
+     * @return nombre de favoris archivés
+     */
+    public int archiveSoldFavorites() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(soldAfterDays);
+        int archived = 0;
+
+        // Un lot par transaction : les verrous restent courts même après des mois sans archivage
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            int count = moved != null ? moved : 0;
+            archived += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            // Écritures JDBC : Hibernate ne voit pas les lignes supprimées de favorites
+            cacheService.evictFavorites();
+            datasetVersion.increment();
+            log.info("{} favoris vendus depuis plus de {} jours archivés", archived, soldAfterDays);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM favorites WHERE sold = TRUE AND sold_at < ? ORDER BY id LIMIT ?",
+                Long.class, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", LocalDateTime.now());
+        // Un favori ré-importé puis revendu remplace son ancienne copie archivée (et ses détails, par cascade)
+        namedJdbcTemplate.update("""
+                DELETE FROM favorites_archive
+                WHERE vinted_id IN (SELECT vinted_id FROM favorites WHERE id IN (:ids))""", params);
+        namedJdbcTemplate.update("INSERT INTO favorites_archive (" + COLUMNS + ", archived_at) "
+                + "SELECT " + COLUMNS + ", :archivedAt FROM favorites WHERE id IN (:ids)", params);
+        // Avant la suppression : favorite_details part avec favorites (ON DELETE CASCADE)
+        namedJdbcTemplate.update("INSERT INTO favorite_details_archive (" + DETAILS_COLUMNS + ") "
+                + "SELECT " + DETAILS_COLUMNS + " FROM favorite_details WHERE favorite_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM favorites WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+
+    /**
+     * Favoris archivés redevenus disponibles, que l'appelant vient de réinsérer dans favorites sous un nouvel id :
+     * leurs détails archivés passent sur le nouvel id (pas de nouvel enrichissement), puis la copie archivée
+     * est supprimée (favorite_details_archive par cascade). Dans la transaction de l'appelant, une fois les
+     * nouvelles lignes écrites (flush Hibernate compris).
+     */
+    public void restoreRevived(Collection<String> vintedIds) {
+        if (vintedIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("vintedIds", vintedIds);
+        namedJdbcTemplate.update("""
+                INSERT INTO favorite_details (favorite_id, description, photo_urls, favourite_count, view_count,
+                                              seller_rating, seller_review_count, fetched_at)
+                SELECT f.id, d.description, d.photo_urls, d.favourite_count, d.view_count,
+                       d.seller_rating, d.seller_review_count, d.fetched_at
+                FROM favorite_details_archive d
+                JOIN favorites_archive a ON a.id = d.favorite_id
+                JOIN favorites f ON f.vinted_id = a.vinted_id
+                WHERE a.vinted_id IN (:vintedIds)""", params);
+        namedJdbcTemplate.update("DELETE FROM favorites_archive WHERE vinted_id IN (:vintedIds)", params);
+    }
+}
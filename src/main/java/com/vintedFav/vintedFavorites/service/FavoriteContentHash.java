@@ -0,0 +1,35 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Empreinte 64 bits des champs qu'une sync Vinted écrase (prix, statut, titre, image, état).
+ * Deux empreintes égales = rien à écrire pour ce favori.
+ */
+final class FavoriteContentHash {
+
+    // Séparateur absent des données Vinted, pour que ("ab", "c") et ("a", "bc") diffèrent
+    private static final char SEPARATOR = '\u001F';
+
+    private FavoriteContentHash() {
+    }
+
+    static long of(Favorite favorite) {
+        String canonical = String.valueOf(favorite.getPrice()) + SEPARATOR
+                + favorite.getSold() + SEPARATOR
+                + favorite.getTitle() + SEPARATOR
+                + favorite.getImageUrl() + SEPARATOR
+                + favorite.getCondition();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest, 0, Long.BYTES).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.vintedFav.vintedFavorites.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version du jeu de favoris, partagée par les instances (table dataset_version) et incrémentée à chaque écriture.
+ * Sert d'ETag fort pour les lectures : relue en base à chaque calcul d'ETag, elle est la même quelle que soit
+ * l'instance qui répond. Une instance qui la voit avancer (écriture d'une autre instance) vide son cache de
+ * second niveau avant d'annoncer le nouvel ETag ; le passage périodique fait de même pour les lectures sans ETag.
+ */
+@Component
+@Slf4j
+public class FavoriteDatasetVersion {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheStatisticsService cacheService;
+
+    // Version partagée des données du cache de second niveau de cette instance ; -1 avant la première lecture
+    private final AtomicLong cachedVersion = new AtomicLong(-1);
+
+    public FavoriteDatasetVersion(JdbcTemplate jdbcTemplate, CacheStatisticsService cacheService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheService = cacheService;
+    }
+
+    /**
+     * Version partagée courante, relue en base ; dernière connue si la base ne répond pas
+     */
+    public long current() {
+        Long shared = readSharedVersion();
+        if (shared == null) {
+            return cachedVersion.get();
+        }
+        observe(shared);
+        return shared;
+    }
+
+    public long increment() {
+        return publish();
+    }
+
+    public String etag() {
+        return "\"favorites-" + current() + "\"";
+    }
+
+    /**
+     * Écritures faites par une autre instance sans lecture d'ETag depuis : cache de second niveau vidé
+     */
+    @Scheduled(fixedDelayString = "${vinted.cluster.version-poll-interval:5000}")
+    public void pollSharedVersion() {
+        current();
+    }
+
+    /**
+     * Cache vidé avant d'adopter une version plus récente : un lecteur qui voit la nouvelle version
+     * ne lit jamais d'entités en cache plus anciennes qu'elle
+     */
+    private void observe(long shared) {
+        long cached = cachedVersion.get();
+        if (shared <= cached) {
+            return;
+        }
+        if (cached >= 0) {
+            cacheService.evictFavorites();
+            log.debug("Favoris modifiés par une autre instance (version partagée {})", shared);
+        }
+        cachedVersion.accumulateAndGet(shared, Math::max);
+    }
+
+    /**
+     * Sans verrou local : les lectures d'ETag n'attendent pas l'écriture de la version
+     */
+    private long publish() {
+        try {
+            Long before = readSharedVersion();
+            jdbcTemplate.update("UPDATE dataset_version SET version = version + 1 WHERE name = 'favorites'");
+            Long after = readSharedVersion();
+            if (before == null || after == null) {
+                return cachedVersion.get();
+            }
+            // Aucune autre écriture entre-temps : le cache reflète déjà celle-ci, rien à vider
+            if (after == before + 1) {
+                cachedVersion.compareAndSet(before, after);
+            }
+            return after;
+        } catch (DataAccessException e) {
+            log.warn("Version partagée non incrémentée: {}", e.getMessage());
+            return cachedVersion.get();
+        }
+    }
+
+    private Long readSharedVersion() {
+        try {
+            return jdbcTemplate.queryForObject("SELECT version FROM dataset_version WHERE name = 'favorites'", Long.class);
+        } catch (DataAccessException e) {
+            log.debug("Version partagée illisible: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import com.vintedFav.vintedFavorites.model.StringListConverter;
+import com.vintedFav.vintedFavorites.repository.FavoriteDetailsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class FavoriteDetailsService {
+
+    private final FavoriteDetailsRepository detailsRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<FavoriteDetails> getDetails(Long favoriteId) {
+        return detailsRepository.findById(favoriteId);
+    }
+
+    public Set<Long> getEnrichedFavoriteIds() {
+        return detailsRepository.findAllFavoriteIds();
+    }
+
+    /**
+     * Crée ou remplace en un lot les détails lus sur les pages Vinted (favoriteId renseigné) ;
+     * ceux d'un favori supprimé entre-temps sont ignorés
+     */
+    @Transactional
+    public void saveAllDetails(List<FavoriteDetails> fetched) {
+        if (fetched.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE favorite_details
+                SET description = ?, photo_urls = ?, favourite_count = ?, view_count = ?,
+                    seller_rating = ?, seller_review_count = ?, fetched_at = ?
+                WHERE favorite_id = ?
+                """, new DetailsSetter(fetched, now));
+
+        List<FavoriteDetails> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(fetched.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO favorite_details (favorite_id, description, photo_urls, favourite_count, view_count,
+                                                  seller_rating, seller_review_count, fetched_at)
+                    SELECT id, ?, ?, ?, ?, ?, ?, ? FROM favorites WHERE id = ?
+                    """, new DetailsSetter(missing, now));
+        }
+    }
+
+    /**
+     * Paramètres communs à la mise à jour et à l'insertion ; types explicites pour les valeurs nulles (PostgreSQL)
+     */
+    private static class DetailsSetter implements BatchPreparedStatementSetter {
+        private static final StringListConverter PHOTO_URLS = new StringListConverter();
+
+        private final List<FavoriteDetails> details;
+        private final LocalDateTime fetchedAt;
+
+        private DetailsSetter(List<FavoriteDetails> details, LocalDateTime fetchedAt) {
+            this.details = details;
+            this.fetchedAt = fetchedAt;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            FavoriteDetails row = details.get(i);
+            ps.setObject(1, row.getDescription(), Types.VARCHAR);
+            ps.setObject(2, PHOTO_URLS.convertToDatabaseColumn(row.getPhotoUrls()), Types.VARCHAR);
+            ps.setObject(3, row.getFavouriteCount(), Types.INTEGER);
+            ps.setObject(4, row.getViewCount(), Types.INTEGER);
+            ps.setObject(5, row.getSellerRating(), Types.DOUBLE);
+            ps.setObject(6, row.getSellerReviewCount(), Types.INTEGER);
+            ps.setObject(7, fetchedAt);
+            ps.setObject(8, row.getFavoriteId());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return details.size();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Diffuse en Server-Sent Events l'avancement des syncs et les changements de favoris,
+ * pour que le front patche son état au lieu de tout recharger.
+ */
+@Service
+@Slf4j
+public class FavoriteEventService {
+
+    public static final String SYNC_PROGRESS = "sync-progress";
+    public static final String FAVORITE_UPSERTED = "favorite-upserted";
+    public static final String FAVORITE_ENRICHED = "favorite-enriched";
+    public static final String FAVORITE_SOLD = "favorite-sold";
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    // EventSource se reconnecte tout seul à l'expiration
+    @Value("${vinted.events.timeout:3600000}")
+    private long emitterTimeout;
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        if (closed) {
+            // Arrêt en cours : le navigateur se reconnectera à une instance active
+            emitter.complete();
+            return emitter;
+        }
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        log.debug("Nouvel abonné SSE ({} connectés)", emitters.size());
+        return emitter;
+    }
+
+    /**
+     * total vaut null tant qu'il n'est pas connu (pendant la pagination)
+     */
+    public void syncProgress(String stage, int processed, Integer total) {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("stage", stage);
+        progress.put("processed", processed);
+        progress.put("total", total);
+        publish(SYNC_PROGRESS, progress);
+    }
+
+    public void favoriteUpserted(Favorite favorite) {
+        publish(FAVORITE_UPSERTED, favorite);
+    }
+
+    public void favoriteEnriched(Favorite favorite) {
+        publish(FAVORITE_ENRICHED, favorite);
+    }
+
+    public void favoriteSold(Favorite favorite) {
+        publish(FAVORITE_SOLD, favorite);
+    }
+
+    /**
+     * Arrêt de l'application : publié avant l'arrêt des beans SmartLifecycle. Un flux SSE ouvert compte
+     * comme requête en cours pour l'arrêt gracieux du serveur web, qui attendrait sinon tout son délai.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void completeAll() {
+        closed = true;
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+        log.debug("Arrêt : {} abonnés SSE déconnectés", emitters.size());
+        emitters.clear();
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void publish(String eventName, Object data) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+            } catch (Exception e) {
+                // Client parti : on l'oublie, il se reconnectera s'il est encore là
+                emitters.remove(emitter);
+                log.debug("Abonné SSE retiré: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Commentaire périodique pour garder la connexion ouverte derrière les proxys
+     * et détecter les clients déconnectés
+     */
+    @Scheduled(fixedRate = 30000)
+    public void heartbeat() {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.config.DatabaseVendor;
+import com.vintedFav.vintedFavorites.dto.PriceDrop;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import com.vintedFav.vintedFavorites.repository.FavoriteHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteHistoryService {
+
+    private static final int MAX_PRICE_DROPS = 500;
+
+    private final FavoriteHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseVendor databaseVendor;
+
+    @Value("${vinted.history.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    public List<FavoriteHistory> getHistory(Long favoriteId) {
+        return historyRepository.findByFavoriteIdOrderByRecordedAtDesc(favoriteId);
+    }
+
+    public List<PriceDrop> getRecentPriceDrops(int days, int limit) {
+        LocalDateTime since = LocalDateTime.now().minusDays(Math.max(days, 1));
+        return historyRepository.findPriceDropsSince(since, PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_PRICE_DROPS)));
+    }
+
+    /**
+     * Crée à l'avance les partitions mensuelles de favorite_history (mois courant + partitionsAhead).
+     * Sans objet sous H2, où la table n'est pas partitionnée.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 3 * * *")
+    public void ensurePartitions() {
+        if (!databaseVendor.isPostgres()) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = String.format("favorite_history_%d_%02d", month.getYear(), month.getMonthValue());
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition
+                        + " PARTITION OF favorite_history FOR VALUES FROM ('" + month.atDay(1)
+                        + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException e) {
+                log.warn("Impossible de créer la partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+}
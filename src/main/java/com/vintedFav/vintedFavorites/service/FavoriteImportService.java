@@ -0,0 +1,313 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vintedFav.vintedFavorites.config.DatabaseVendor;
+import com.vintedFav.vintedFavorites.dto.ImportResponse;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import com.vintedFav.vintedFavorites.repository.FavoriteHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import massif lu token par token : seul le lot courant est en mémoire,
+ * chaque lot est upserté par vinted_id dans sa propre transaction.
+ * Comme pour la sync, un changement de prix ou de statut d'un favori existant est inscrit dans son historique,
+ * et un favori archivé n'est pas dupliqué : vendu, il est ignoré ; disponible, il sort de l'archive.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteImportService {
+
+    // Même règles que la sync : prix/statut/titre/image/état écrasés, le reste complété seulement s'il manque.
+    // favorite_order n'est lu que pour un nouveau favori : celui d'une ligne existante appartient à la sync
+    // (un fichier exporté plus tôt le ramènerait à un ordre périmé).
+    // L'empreinte est effacée : la prochaine sync recomparera ces lignes champ par champ.
+    private static final String UPSERT_SQL = """
+            INSERT INTO favorites (vinted_id, title, brand, category, gender, price, image_url, product_url,
+                                   listed_date, sold, seller_name, size, condition, favorite_order,
+                                   created_at, updated_at, sold_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (vinted_id) DO UPDATE SET
+                title = EXCLUDED.title,
+                price = EXCLUDED.price,
+                sold = EXCLUDED.sold,
+                sold_at = CASE WHEN EXCLUDED.sold THEN COALESCE(favorites.sold_at, EXCLUDED.sold_at) END,
+                image_url = COALESCE(EXCLUDED.image_url, favorites.image_url),
+                condition = COALESCE(EXCLUDED.condition, favorites.condition),
+                product_url = COALESCE(EXCLUDED.product_url, favorites.product_url),
+                brand = COALESCE(favorites.brand, EXCLUDED.brand),
+                category = COALESCE(favorites.category, EXCLUDED.category),
+                gender = COALESCE(favorites.gender, EXCLUDED.gender),
+                size = COALESCE(favorites.size, EXCLUDED.size),
+                seller_name = COALESCE(favorites.seller_name, EXCLUDED.seller_name),
+                listed_date = COALESCE(favorites.listed_date, EXCLUDED.listed_date),
+                content_hash = NULL,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // Équivalent H2 (profil embedded), qui ne connaît pas ON CONFLICT ... DO UPDATE ; paramètres dans le même ordre
+    private static final String MERGE_SQL = """
+            MERGE INTO favorites f
+            USING (VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?))
+                AS s (vinted_id, title, brand, category, gender, price, image_url, product_url,
+                      listed_date, sold, seller_name, size, condition, favorite_order, created_at, updated_at, sold_at)
+            ON f.vinted_id = s.vinted_id
+            WHEN MATCHED THEN UPDATE SET
+                title = s.title,
+                price = s.price,
+                sold = s.sold,
+                sold_at = CASE WHEN s.sold THEN COALESCE(f.sold_at, s.sold_at) END,
+                image_url = COALESCE(s.image_url, f.image_url),
+                condition = COALESCE(s.condition, f.condition),
+                product_url = COALESCE(s.product_url, f.product_url),
+                brand = COALESCE(f.brand, s.brand),
+                category = COALESCE(f.category, s.category),
+                gender = COALESCE(f.gender, s.gender),
+                size = COALESCE(f.size, s.size),
+                seller_name = COALESCE(f.seller_name, s.seller_name),
+                listed_date = COALESCE(f.listed_date, s.listed_date),
+                content_hash = NULL,
+                updated_at = s.updated_at
+            WHEN NOT MATCHED THEN INSERT (vinted_id, title, brand, category, gender, price, image_url, product_url,
+                                          listed_date, sold, seller_name, size, condition, favorite_order,
+                                          created_at, updated_at, sold_at)
+                VALUES (s.vinted_id, s.title, s.brand, s.category, s.gender, s.price, s.image_url, s.product_url,
+                        s.listed_date, s.sold, s.seller_name, s.size, s.condition, s.favorite_order,
+                        s.created_at, s.updated_at, s.sold_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final FavoriteDatasetVersion datasetVersion;
+    private final DatabaseVendor databaseVendor;
+    private final CacheStatisticsService cacheService;
+    private final FavoriteHistoryRepository historyRepository;
+    private final FavoriteArchiveService archiveService;
+
+    @Value("${vinted.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Lit un tableau JSON de favoris et l'upserte par lots.
+     * En cas d'erreur de lecture ou d'écriture, les lots déjà écrits restent validés et sont reportés dans la réponse ;
+     * le lot en erreur est annulé en entier (failedBatch).
+     */
+    public ImportResponse importFavorites(InputStream body) {
+        ImportResponse response = new ImportResponse();
+        Map<String, Favorite> batch = new LinkedHashMap<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                response.setSuccess(false);
+                response.setMessage("Un tableau JSON de favoris est attendu");
+                return response;
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Favorite favorite = objectMapper.readValue(parser, Favorite.class);
+                response.setRead(response.getRead() + 1);
+
+                if (favorite.getTitle() == null || favorite.getTitle().isBlank()) {
+                    response.setSkipped(response.getSkipped() + 1);
+                    continue;
+                }
+
+                // Sans vinted_id il n'y a pas de conflit possible : clé unique propre à l'import
+                String key = favorite.getVintedId() != null ? favorite.getVintedId() : "#" + response.getRead();
+                if (batch.put(key, favorite) != null) {
+                    response.setDuplicates(response.getDuplicates() + 1);
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, response);
+                }
+            }
+            flush(batch, response);
+            response.setMessage("Import terminé");
+        } catch (IOException e) {
+            log.error("Import interrompu après {} favoris: {}", response.getRead(), e.getMessage());
+            response.setSuccess(false);
+            response.setMessage("Lecture interrompue: " + e.getMessage());
+        } catch (DataAccessException | TransactionException e) {
+            int failed = response.getBatches().size() + 1;
+            log.error("Import interrompu, lot {} non écrit: {}", failed, e.getMessage());
+            response.setSuccess(false);
+            response.setFailedBatch(failed);
+            response.setMessage("Écriture du lot " + failed + " impossible: " + firstLine(e.getMostSpecificCause().getMessage()));
+        }
+
+        log.info("Import: {} lus, {} insérés, {} mis à jour, {} doublons, {} ignorés en {} lots",
+                response.getRead(), response.getInserted(), response.getUpdated(),
+                response.getDuplicates(), response.getSkipped(), response.getBatches().size());
+        return response;
+    }
+
+    /**
+     * Message du pilote sans la requête SQL qu'il recopie à la suite
+     */
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "erreur inconnue";
+        }
+        String line = message.lines().findFirst().orElse(message);
+        int statement = line.indexOf("; SQL statement:");
+        return statement >= 0 ? line.substring(0, statement) : line;
+    }
+
+    private void flush(Map<String, Favorite> batch, ImportResponse response) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<Favorite> favorites = new ArrayList<>(batch.values());
+        int read = favorites.size();
+
+        Integer existing = transactionTemplate.execute(status -> {
+            Set<String> revived = excludeArchived(favorites);
+            Map<String, Favorite> alreadyPresent = findExisting(favorites);
+            upsert(favorites);
+            archiveService.restoreRevived(revived);
+            recordHistory(favorites, alreadyPresent);
+            return alreadyPresent.size();
+        });
+        cacheService.evictFavorites();
+        datasetVersion.increment();
+
+        int updated = existing != null ? existing : 0;
+        int inserted = favorites.size() - updated;
+        response.setSkipped(response.getSkipped() + read - favorites.size());
+        response.setInserted(response.getInserted() + inserted);
+        response.setUpdated(response.getUpdated() + updated);
+        response.getBatches().add(new ImportResponse.BatchStats(
+                response.getBatches().size() + 1, favorites.size(), inserted, updated,
+                System.currentTimeMillis() - start));
+        batch.clear();
+    }
+
+    /**
+     * Retire du lot les vendus déjà archivés (l'archive reste la référence) ;
+     * les archivés de nouveau disponibles restent dans le lot et sortiront de l'archive après l'upsert
+     * @return vinted_id des favoris à sortir de l'archive
+     */
+    private Set<String> excludeArchived(List<Favorite> favorites) {
+        Set<String> vintedIds = favorites.stream()
+                .map(Favorite::getVintedId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        if (vintedIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> archived = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT vinted_id FROM favorites_archive WHERE vinted_id IN (:ids)",
+                new MapSqlParameterSource("ids", vintedIds), String.class));
+        if (archived.isEmpty()) {
+            return Set.of();
+        }
+
+        favorites.removeIf(favorite -> archived.contains(favorite.getVintedId())
+                && Boolean.TRUE.equals(favorite.getSold()));
+        Set<String> revived = new HashSet<>();
+        favorites.stream()
+                .map(Favorite::getVintedId)
+                .filter(archived::contains)
+                .forEach(revived::add);
+        return revived;
+    }
+
+    /**
+     * Favoris du lot déjà en base, avec le prix et le statut d'avant l'upsert, par vinted_id
+     */
+    private Map<String, Favorite> findExisting(List<Favorite> favorites) {
+        Set<String> vintedIds = new HashSet<>();
+        favorites.stream()
+                .map(Favorite::getVintedId)
+                .filter(id -> id != null)
+                .forEach(vintedIds::add);
+        if (vintedIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return namedJdbcTemplate.query(
+                        "SELECT id, vinted_id, price, sold FROM favorites WHERE vinted_id IN (:ids)",
+                        new MapSqlParameterSource("ids", vintedIds), new BeanPropertyRowMapper<>(Favorite.class))
+                .stream()
+                .collect(Collectors.toMap(Favorite::getVintedId, Function.identity()));
+    }
+
+    /**
+     * Prix et statut sont toujours écrasés par l'upsert : une ligne d'historique par favori existant dont l'un change
+     */
+    private void recordHistory(List<Favorite> favorites, Map<String, Favorite> existingByVintedId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<FavoriteHistory> history = new ArrayList<>();
+        for (Favorite favorite : favorites) {
+            Favorite existing = favorite.getVintedId() != null ? existingByVintedId.get(favorite.getVintedId()) : null;
+            if (existing == null) {
+                continue;
+            }
+            boolean sold = Boolean.TRUE.equals(favorite.getSold());
+            if (!Objects.equals(existing.getPrice(), favorite.getPrice()) || !Objects.equals(existing.getSold(), sold)) {
+                history.add(new FavoriteHistory(null, existing.getId(), now,
+                        favorite.getPrice(), existing.getPrice(), sold, existing.getSold()));
+            }
+        }
+        historyRepository.saveAll(history);
+    }
+
+    private void upsert(List<Favorite> favorites) {
+        if (favorites.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String sql = databaseVendor.isPostgres() ? UPSERT_SQL : MERGE_SQL;
+        jdbcTemplate.batchUpdate(sql, favorites, favorites.size(), (ps, favorite) -> {
+            ps.setObject(1, favorite.getVintedId());
+            ps.setObject(2, favorite.getTitle());
+            ps.setObject(3, favorite.getBrand());
+            ps.setObject(4, favorite.getCategory());
+            ps.setObject(5, favorite.getGender());
+            ps.setObject(6, favorite.getPrice());
+            ps.setObject(7, favorite.getImageUrl());
+            ps.setObject(8, favorite.getProductUrl());
+            ps.setObject(9, favorite.getListedDate());
+            boolean sold = Boolean.TRUE.equals(favorite.getSold());
+            ps.setObject(10, sold);
+            ps.setObject(11, favorite.getSellerName());
+            ps.setObject(12, favorite.getSize());
+            ps.setObject(13, favorite.getCondition());
+            ps.setObject(14, favorite.getFavoriteOrder());
+            ps.setObject(15, now);
+            ps.setObject(16, now);
+            ps.setObject(17, sold ? now : null);
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.vintedFav.vintedFavorites.service;
+
+/**
+ * Ordre d'affichage à trous : les favoris sont espacés de GAP, un ajout en tête ou entre deux
+ * favoris prend une valeur libre au lieu de décaler tous les autres.
+ * Seuls les favoris hors de la plus longue sous-suite déjà bien ordonnée reçoivent un nouvel ordre ;
+ * on ne renumérote tout que lorsqu'il n'y a plus de place entre deux voisins.
+ */
+final class FavoriteOrdering {
+
+    static final int GAP = 1024;
+
+    private FavoriteOrdering() {
+    }
+
+    /**
+     * @param current ordre actuel du favori à chaque position voulue (null pour un nouveau favori)
+     * @return ordre à appliquer à chaque position, strictement croissant
+     */
+    static int[] assign(Integer[] current) {
+        int n = current.length;
+        int[] result = new int[n];
+        boolean[] kept = longestIncreasingSubsequence(current);
+
+        for (int i = 0; i < n; i++) {
+            if (kept[i]) {
+                result[i] = current[i];
+            }
+        }
+
+        int i = 0;
+        while (i < n) {
+            if (kept[i]) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && !kept[i]) {
+                i++;
+            }
+            Long lower = start > 0 ? Long.valueOf(result[start - 1]) : null;
+            Long upper = i < n ? Long.valueOf(result[i]) : null;
+            if (!fillRun(result, start, i, lower, upper)) {
+                return rebalance(n);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Place les positions [start, end) entre lower et upper (exclus), null = pas de borne
+     */
+    private static boolean fillRun(int[] result, int start, int end, Long lower, Long upper) {
+        int count = end - start;
+        for (int j = 0; j < count; j++) {
+            long value;
+            if (lower == null && upper == null) {
+                value = (long) GAP * j;
+            } else if (lower == null) {
+                value = upper - (long) GAP * (count - j);
+            } else if (upper == null) {
+                value = lower + (long) GAP * (j + 1);
+            } else {
+                long room = upper - lower;
+                if (room <= count) {
+                    return false;
+                }
+                value = lower + room * (j + 1) / (count + 1);
+            }
+
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                return false;
+            }
+            result[start + j] = (int) value;
+        }
+        return true;
+    }
+
+    private static int[] rebalance(int n) {
+        int gap = Math.max(1, Math.min(GAP, Integer.MAX_VALUE / Math.max(n, 1)));
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = gap * i;
+        }
+        return result;
+    }
+
+    /**
+     * Plus longue sous-suite strictement croissante des ordres existants (O(n log n))
+     */
+    private static boolean[] longestIncreasingSubsequence(Integer[] values) {
+        int n = values.length;
+        int[] tailIndex = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tailIndex[mid]] < values[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tailIndex[lo - 1] : -1;
+            tailIndex[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+
+        boolean[] kept = new boolean[n];
+        int k = length > 0 ? tailIndex[length - 1] : -1;
+        while (k >= 0) {
+            kept[k] = true;
+            k = previous[k];
+        }
+        return kept;
+    }
+}
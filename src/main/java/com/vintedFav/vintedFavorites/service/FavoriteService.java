@@ -1,12 +1,23 @@
 package com.vintedFav.vintedFavorites.service;
 
+import com.vintedFav.vintedFavorites.dto.FavoriteFilter;
 import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import com.vintedFav.vintedFavorites.repository.FavoriteHistoryRepository;
+import com.vintedFav.vintedFavorites.repository.FavoriteProjection;
 import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class FavoriteService {
@@ -14,6 +25,15 @@ public class FavoriteService {
     @Autowired
     private FavoriteRepository favoriteRepository;
 
+    @Autowired
+    private FavoriteDatasetVersion datasetVersion;
+
+    @Autowired
+    private FavoriteHistoryRepository historyRepository;
+
+    @Value("${vinted.export.fetch-size:500}")
+    private int exportFetchSize;
+
     public List<Favorite> getAllFavorites() {
         return favoriteRepository.findAllByOrderByFavoriteOrderAsc();
     }
@@ -25,32 +45,96 @@ public class FavoriteService {
         return favoriteRepository.findAllByOrderByFavoriteOrderAsc();
     }
 
+    public long countFavorites() {
+        return favoriteRepository.count();
+    }
+
     public Optional<Favorite> getFavoriteById(Long id) {
         return favoriteRepository.findById(id);
     }
 
+    /**
+     * Écriture manuelle (API) : l'empreinte est effacée pour que la prochaine sync compare les champs un à un
+     * et rétablisse les valeurs Vinted modifiées à la main. Un changement de prix ou de statut est inscrit
+     * dans l'historique, comme pour la sync.
+     */
+    @Transactional
     public Favorite saveFavorite(Favorite favorite) {
-        return favoriteRepository.save(favorite);
+        PreviousState previous = previousState(favorite);
+        favorite.setContentHash(null);
+        Favorite saved = favoriteRepository.save(favorite);
+        recordHistory(saved, previous, LocalDateTime.now());
+        datasetVersion.increment();
+        return saved;
     }
 
+    @Transactional
     public List<Favorite> saveAllFavorites(List<Favorite> favorites) {
-        return favoriteRepository.saveAll(favorites);
+        List<PreviousState> previous = favorites.stream().map(this::previousState).toList();
+        favorites.forEach(favorite -> favorite.setContentHash(null));
+        List<Favorite> saved = favoriteRepository.saveAll(favorites);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < saved.size(); i++) {
+            recordHistory(saved.get(i), previous.get(i), now);
+        }
+        datasetVersion.increment();
+        return saved;
+    }
+
+    /**
+     * Prix et statut avant écriture ; null pour un nouveau favori. Copiés avant save() :
+     * le merge les écrase sur l'entité gérée
+     */
+    private PreviousState previousState(Favorite favorite) {
+        if (favorite.getId() == null) {
+            return null;
+        }
+        return favoriteRepository.findById(favorite.getId())
+                .map(existing -> new PreviousState(existing.getPrice(), existing.getSold()))
+                .orElse(null);
+    }
+
+    private void recordHistory(Favorite saved, PreviousState previous, LocalDateTime now) {
+        if (previous == null) {
+            return;
+        }
+        if (!Objects.equals(previous.price, saved.getPrice()) || !Objects.equals(previous.sold, saved.getSold())) {
+            historyRepository.save(new FavoriteHistory(null, saved.getId(), now,
+                    saved.getPrice(), previous.price, saved.getSold(), previous.sold));
+        }
     }
 
     public void deleteFavorite(Long id) {
         favoriteRepository.deleteById(id);
+        datasetVersion.increment();
+    }
+
+    public List<String> getAllBrands(boolean includeArchived) {
+        return includeArchived
+                ? favoriteRepository.findDistinctBrandsIncludingArchived()
+                : favoriteRepository.findDistinctBrands();
+    }
+
+    /**
+     * Liste allégée pour la grille : seules les colonnes demandées (fields=) sont lues
+     */
+    public List<Map<String, Object>> getFavoriteSummaries(String sortOrder, String fields, boolean includeArchived) {
+        FavoriteFilter filter = new FavoriteFilter();
+        filter.setIncludeArchived(includeArchived);
+        return favoriteRepository.findProjected(filter, FavoriteProjection.parseFields(fields),
+                "desc".equalsIgnoreCase(sortOrder));
     }
 
     public List<Favorite> getFavoritesByBrand(String brand) {
-        return favoriteRepository.findByBrand(brand);
+        return favoriteRepository.findByBrandIgnoreCase(brand);
     }
 
     public List<Favorite> getFavoritesByGender(String gender) {
-        return favoriteRepository.findByGender(gender);
+        return favoriteRepository.findByGenderIgnoreCase(gender);
     }
 
     public List<Favorite> getFavoritesByCategory(String category) {
-        return favoriteRepository.findByCategory(category);
+        return favoriteRepository.findByCategoryIgnoreCase(category);
     }
 
     public List<Favorite> getFavoritesBySoldStatus(Boolean sold) {
@@ -63,16 +147,33 @@ public class FavoriteService {
                 .orElse(List.of());
     }
 
-    public List<Favorite> filterFavorites(String brand, String gender, String category, Boolean sold) {
-        // Utiliser la méthode qui trie par ordre d'ajout Vinted
-        List<Favorite> favorites = favoriteRepository.findAllByOrderByFavoriteOrderAsc();
+    public List<Map<String, Object>> filterFavorites(String brand, String gender, String category, Boolean sold,
+                                                     boolean includeArchived, String fields) {
+        // Filtrage et tri faits par la base, dans l'ordre d'ajout Vinted
+        return favoriteRepository.findProjected(new FavoriteFilter(brand, gender, category, sold, includeArchived),
+                FavoriteProjection.parseFields(fields), false);
+    }
+
+    /**
+     * Parcourt les favoris filtrés via un curseur base de données et passe chaque ligne au consumer,
+     * sans jamais matérialiser la liste complète en mémoire
+     */
+    @Transactional(readOnly = true)
+    public void streamFavorites(FavoriteFilter filter, List<String> fields, boolean descending,
+                                Consumer<Map<String, Object>> consumer) {
+        try (Stream<Map<String, Object>> rows =
+                     favoriteRepository.streamProjected(filter, fields, descending, exportFetchSize)) {
+            rows.forEach(consumer);
+        }
+    }
+
+    private static class PreviousState {
+        private final Double price;
+        private final Boolean sold;
 
-        // Filtrage manuel (à optimiser avec des requêtes SQL plus tard)
-        return favorites.stream()
-                .filter(f -> brand == null || brand.isEmpty() || brand.equalsIgnoreCase(f.getBrand()))
-                .filter(f -> gender == null || gender.isEmpty() || gender.equalsIgnoreCase(f.getGender()))
-                .filter(f -> category == null || category.isEmpty() || category.equalsIgnoreCase(f.getCategory()))
-                .filter(f -> sold == null || sold.equals(f.getSold()))
-                .toList();
+        private PreviousState(Double price, Boolean sold) {
+            this.price = price;
+            this.sold = sold;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,371 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vintedFav.vintedFavorites.model.Alert;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import com.vintedFav.vintedFavorites.model.OutboxEvent;
+import com.vintedFav.vintedFavorites.repository.AlertRepository;
+import com.vintedFav.vintedFavorites.repository.FavoriteHistoryRepository;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import com.vintedFav.vintedFavorites.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applique en une transaction la liste des favoris récupérée chez Vinted :
+ * insère les nouveaux, met à jour les existants et ne touche qu'aux lignes qui ont réellement changé.
+ * Les changements notables (nouveau, baisse de prix, vendu) partent dans l'outbox au sein de la même transaction,
+ * tout comme les alertes déclenchées par les favoris dont le prix a baissé ou qui sont redevenus disponibles.
+ * Les favoris trouvés vendus par la sonde de statut (SoldStatusProbeService) passent aussi par ici.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteSyncService {
+
+    // Limite la taille des IN (...) envoyés à PostgreSQL
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    // Champs de l'empreinte et de l'événement outbox, les seuls utiles pour marquer un favori vendu
+    private static final String SOLD_PROBE_COLUMNS = "id, vinted_id, title, brand, price, image_url, product_url, sold, condition";
+
+    private final FavoriteRepository favoriteRepository;
+    private final FavoriteHistoryRepository historyRepository;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final FavoriteDatasetVersion datasetVersion;
+    private final FavoriteEventService eventService;
+    private final AlertService alertService;
+    private final AlertRepository alertRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final CacheStatisticsService cacheService;
+    private final ClusterLockService lockService;
+    private final FavoriteArchiveService archiveService;
+
+    /**
+     * @param fetched favoris dans l'ordre Vinted (0 = le plus récent)
+     */
+    public SyncResult applySync(List<Favorite> fetched) {
+        List<Favorite> incoming = deduplicate(fetched);
+        SyncResult result = transactionTemplate.execute(status -> applyInTransaction(incoming));
+
+        // Publié après commit : un lecteur ne doit jamais associer la nouvelle version à d'anciennes données
+        if (result != null && result.hasChanges()) {
+            datasetVersion.increment();
+            result.getUpserted().forEach(eventService::favoriteUpserted);
+            result.getNewlySold().forEach(eventService::favoriteSold);
+        }
+        return result;
+    }
+
+    private SyncResult applyInTransaction(List<Favorite> fetched) {
+        // Outbox : les ids doivent être validés dans l'ordre (voir OutboxDispatcher)
+        lockService.lockForTransaction("outbox");
+        alertService.refreshRules();
+        SyncResult result = new SyncResult();
+        result.setFetchedCount(fetched.size());
+        Set<String> revived = new HashSet<>();
+        List<Favorite> incoming = excludeArchived(fetched, result, revived);
+
+        Map<String, Favorite> existingByVintedId = findExisting(incoming.stream().map(Favorite::getVintedId).toList());
+
+        Integer[] currentOrders = new Integer[incoming.size()];
+        for (int i = 0; i < incoming.size(); i++) {
+            Favorite existing = existingByVintedId.get(incoming.get(i).getVintedId());
+            currentOrders[i] = existing != null ? existing.getFavoriteOrder() : null;
+        }
+        int[] targetOrders = FavoriteOrdering.assign(currentOrders);
+        List<FavoriteHistory> history = new ArrayList<>();
+        List<OutboxEvent> outbox = new ArrayList<>();
+        List<Alert> alerts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < incoming.size(); i++) {
+            Favorite favorite = incoming.get(i);
+            Favorite existing = existingByVintedId.get(favorite.getVintedId());
+
+            if (existing == null) {
+                favorite.setFavoriteOrder(targetOrders[i]);
+                favorite.setContentHash(FavoriteContentHash.of(favorite));
+                result.getUpserted().add(favoriteRepository.save(favorite));
+                outbox.add(outboxEvent(OutboxEvent.FAVORITE_CREATED, favorite, null, now));
+                if (revived.contains(favorite.getVintedId())) {
+                    // Vendu archivé de nouveau disponible : retour en stock
+                    alerts.addAll(alertService.evaluate(favorite, null, true, now));
+                }
+                result.setNewCount(result.getNewCount() + 1);
+                continue;
+            }
+
+            // Entité gérée : le dirty checking n'émet un UPDATE que si un setter a réellement changé une valeur
+            Double previousPrice = existing.getPrice();
+            Boolean previousSold = existing.getSold();
+            boolean changed = updateExistingFavorite(existing, favorite);
+            boolean moved = !Objects.equals(existing.getFavoriteOrder(), targetOrders[i]);
+            if (moved) {
+                existing.setFavoriteOrder(targetOrders[i]);
+            }
+
+            if (changed) {
+                result.setChangedCount(result.getChangedCount() + 1);
+            } else if (moved) {
+                result.setReorderedCount(result.getReorderedCount() + 1);
+            } else {
+                result.setUnchangedCount(result.getUnchangedCount() + 1);
+                continue;
+            }
+
+            result.getUpserted().add(existing);
+            if (!Boolean.TRUE.equals(previousSold) && Boolean.TRUE.equals(existing.getSold())) {
+                result.getNewlySold().add(existing);
+                outbox.add(outboxEvent(OutboxEvent.FAVORITE_SOLD, existing, previousPrice, now));
+            }
+            if (!Objects.equals(previousPrice, existing.getPrice())) {
+                result.setRepricedCount(result.getRepricedCount() + 1);
+            }
+            if (previousPrice != null && existing.getPrice() != null && existing.getPrice() < previousPrice) {
+                outbox.add(outboxEvent(OutboxEvent.FAVORITE_PRICE_DROPPED, existing, previousPrice, now));
+            }
+            if (!Objects.equals(previousPrice, existing.getPrice()) || !Objects.equals(previousSold, existing.getSold())) {
+                history.add(new FavoriteHistory(null, existing.getId(), now,
+                        existing.getPrice(), previousPrice, existing.getSold(), previousSold));
+                alerts.addAll(alertService.evaluate(existing, previousPrice, previousSold, now));
+            }
+        }
+        leaveArchive(revived);
+        historyRepository.saveAll(history);
+        // Ids attribués à l'insertion : repris dans les événements de l'outbox
+        for (Alert alert : alertRepository.saveAll(alerts)) {
+            outbox.add(alertEvent(alert, now));
+        }
+        outboxRepository.saveAll(outbox);
+
+        result.setAlertCount(alerts.size());
+
+        log.info("Sync appliquée: {} reçus, {} nouveaux, {} modifiés, {} réordonnés, {} inchangés, {} archivés, {} alertes",
+                result.getFetchedCount(), result.getNewCount(), result.getChangedCount(),
+                result.getReorderedCount(), result.getUnchangedCount(), result.getArchivedCount(), alerts.size());
+        return result;
+    }
+
+    /**
+     * Marque vendus, en un seul UPDATE par lot, les favoris que la sonde a trouvés fermés chez Vinted.
+     * Les lignes sont relues verrouillées : un favori déjà marqué vendu entre-temps (par une sync) est ignoré.
+     * @return favoris passés vendus
+     */
+    public List<Favorite> applySoldStatus(Collection<Long> favoriteIds) {
+        if (favoriteIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> sold = transactionTemplate.execute(status -> markSoldInTransaction(favoriteIds));
+        if (sold == null || sold.isEmpty()) {
+            return List.of();
+        }
+
+        // Écriture JDBC : Hibernate garderait l'ancien statut en cache de second niveau
+        cacheService.evictFavorites();
+        datasetVersion.increment();
+        List<Favorite> favorites = favoriteRepository.findAllById(sold);
+        favorites.forEach(eventService::favoriteSold);
+        return favorites;
+    }
+
+    private List<Long> markSoldInTransaction(Collection<Long> favoriteIds) {
+        lockService.lockForTransaction("outbox");
+        List<Favorite> favorites = namedJdbcTemplate.query(
+                "SELECT " + SOLD_PROBE_COLUMNS + " FROM favorites WHERE id IN (:ids) AND sold = FALSE FOR UPDATE",
+                new MapSqlParameterSource("ids", favoriteIds), new BeanPropertyRowMapper<>(Favorite.class));
+        if (favorites.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FavoriteHistory> history = new ArrayList<>();
+        List<OutboxEvent> outbox = new ArrayList<>();
+        for (Favorite favorite : favorites) {
+            favorite.setSold(true);
+            favorite.setContentHash(FavoriteContentHash.of(favorite));
+            history.add(new FavoriteHistory(null, favorite.getId(), now,
+                    favorite.getPrice(), favorite.getPrice(), true, false));
+            outbox.add(outboxEvent(OutboxEvent.FAVORITE_SOLD, favorite, favorite.getPrice(), now));
+        }
+
+        jdbcTemplate.batchUpdate("UPDATE favorites SET sold = TRUE, sold_at = ?, content_hash = ?, updated_at = ? WHERE id = ?",
+                favorites, favorites.size(), (ps, favorite) -> {
+                    ps.setObject(1, now);
+                    ps.setObject(2, favorite.getContentHash());
+                    ps.setObject(3, now);
+                    ps.setObject(4, favorite.getId());
+                });
+        historyRepository.saveAll(history);
+        outboxRepository.saveAll(outbox);
+
+        log.info("Sonde: {} favoris passés vendus", favorites.size());
+        return favorites.stream().map(Favorite::getId).toList();
+    }
+
+    private OutboxEvent outboxEvent(String type, Favorite favorite, Double previousPrice, LocalDateTime now) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("vintedId", favorite.getVintedId());
+        payload.put("title", favorite.getTitle());
+        payload.put("brand", favorite.getBrand());
+        payload.put("price", favorite.getPrice());
+        payload.put("previousPrice", previousPrice);
+        payload.put("sold", favorite.getSold());
+        payload.put("productUrl", favorite.getProductUrl());
+        payload.put("imageUrl", favorite.getImageUrl());
+        return toOutboxEvent(type, favorite.getId(), favorite.getVintedId(), payload, now);
+    }
+
+    private OutboxEvent alertEvent(Alert alert, LocalDateTime now) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("alertId", alert.getId());
+        payload.put("ruleId", alert.getRuleId());
+        payload.put("type", alert.getType());
+        payload.put("vintedId", alert.getVintedId());
+        payload.put("title", alert.getTitle());
+        payload.put("price", alert.getPrice());
+        payload.put("previousPrice", alert.getPreviousPrice());
+        return toOutboxEvent(OutboxEvent.ALERT_FIRED, alert.getFavoriteId(), alert.getVintedId(), payload, now);
+    }
+
+    private OutboxEvent toOutboxEvent(String type, Long favoriteId, String vintedId, Map<String, Object> payload,
+                                      LocalDateTime now) {
+        try {
+            return new OutboxEvent(null, type, favoriteId, vintedId, objectMapper.writeValueAsString(payload), now);
+        } catch (JsonProcessingException e) {
+            // Map de types simples : ne peut pas échouer en pratique
+            throw new IllegalStateException("Sérialisation de l'événement impossible", e);
+        }
+    }
+
+    /**
+     * Retire les entrées inutilisables et les doublons (la première occurrence, la plus récente, gagne)
+     */
+    private List<Favorite> deduplicate(List<Favorite> fetched) {
+        Map<String, Favorite> unique = new LinkedHashMap<>();
+        for (Favorite favorite : fetched) {
+            if (favorite.getVintedId() == null || favorite.getTitle() == null) {
+                log.warn("Favori ignoré (id ou titre manquant): {}", favorite.getVintedId());
+                continue;
+            }
+            unique.putIfAbsent(favorite.getVintedId(), favorite);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    /**
+     * Les vendus archivés restent dans favorites_archive ; un favori archivé redevenu disponible
+     * repasse dans favorites comme un nouveau favori (son vinted_id est ajouté à revived, voir leaveArchive).
+     */
+    private List<Favorite> excludeArchived(List<Favorite> incoming, SyncResult result, Set<String> revived) {
+        List<String> vintedIds = incoming.stream().map(Favorite::getVintedId).toList();
+        Set<String> archived = new HashSet<>();
+        for (int start = 0; start < vintedIds.size(); start += LOOKUP_CHUNK_SIZE) {
+            archived.addAll(favoriteRepository.findArchivedVintedIds(
+                    vintedIds.subList(start, Math.min(start + LOOKUP_CHUNK_SIZE, vintedIds.size()))));
+        }
+        if (archived.isEmpty()) {
+            return incoming;
+        }
+
+        List<Favorite> kept = new ArrayList<>();
+        for (Favorite favorite : incoming) {
+            if (!archived.contains(favorite.getVintedId())) {
+                kept.add(favorite);
+            } else if (Boolean.TRUE.equals(favorite.getSold())) {
+                result.setArchivedCount(result.getArchivedCount() + 1);
+            } else {
+                revived.add(favorite.getVintedId());
+                kept.add(favorite);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Favoris archivés réinsérés dans favorites : voir FavoriteArchiveService.restoreRevived
+     */
+    private void leaveArchive(Set<String> revived) {
+        if (revived.isEmpty()) {
+            return;
+        }
+        // La jointure SQL doit voir les favoris que Hibernate vient d'insérer
+        favoriteRepository.flush();
+        archiveService.restoreRevived(revived);
+    }
+
+    private Map<String, Favorite> findExisting(List<String> vintedIds) {
+        Map<String, Favorite> existing = new HashMap<>();
+        for (int start = 0; start < vintedIds.size(); start += LOOKUP_CHUNK_SIZE) {
+            Collection<String> chunk = vintedIds.subList(start, Math.min(start + LOOKUP_CHUNK_SIZE, vintedIds.size()));
+            favoriteRepository.findByVintedIdIn(chunk)
+                    .forEach(favorite -> existing.put(favorite.getVintedId(), favorite));
+        }
+        return existing;
+    }
+
+    /**
+     * Recopie les champs Vinted seulement si l'empreinte diffère, et complète les champs encore vides.
+     * @return true si au moins un champ a changé
+     */
+    private boolean updateExistingFavorite(Favorite existing, Favorite updated) {
+        boolean changed = false;
+
+        long incomingHash = FavoriteContentHash.of(updated);
+        if (!Objects.equals(existing.getContentHash(), incomingHash)) {
+            // Empreinte absente (ligne antérieure au hash) : seul le hash est à écrire si le contenu est identique
+            changed = existing.getContentHash() != null || FavoriteContentHash.of(existing) != incomingHash;
+            existing.setPrice(updated.getPrice());
+            existing.setSold(updated.getSold());
+            existing.setTitle(updated.getTitle());
+            existing.setImageUrl(updated.getImageUrl());
+            existing.setCondition(updated.getCondition());
+            existing.setContentHash(incomingHash);
+        }
+
+        if (updated.getCategory() != null && existing.getCategory() == null) {
+            existing.setCategory(updated.getCategory());
+            changed = true;
+        }
+        if (updated.getGender() != null && existing.getGender() == null) {
+            existing.setGender(updated.getGender());
+            changed = true;
+        }
+        if (updated.getBrand() != null && existing.getBrand() == null) {
+            existing.setBrand(updated.getBrand());
+            changed = true;
+        }
+        if (updated.getSize() != null && existing.getSize() == null) {
+            existing.setSize(updated.getSize());
+            changed = true;
+        }
+        if (updated.getSellerName() != null && existing.getSellerName() == null) {
+            existing.setSellerName(updated.getSellerName());
+            changed = true;
+        }
+
+        return changed;
+    }
+}
@@ -0,0 +1,254 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vignettes JPEG des photos Vinted : l'original n'est téléchargé qu'une fois, toutes les tailles
+ * sont générées d'un coup et conservées dans un cache disque borné.
+ * Seules les URL https des hôtes autorisés (CDN Vinted) sont téléchargées : l'URL vient d'un champ
+ * modifiable du favori (import, PUT) et ne doit pas permettre d'atteindre le réseau interne.
+ */
+@Service
+@Slf4j
+public class ImageThumbnailService {
+
+    public enum ThumbnailSize {
+        THUMB("thumb", 320),
+        MEDIUM("medium", 640);
+
+        private final String param;
+        private final int width;
+
+        ThumbnailSize(String param, int width) {
+            this.param = param;
+            this.width = width;
+        }
+
+        public static ThumbnailSize fromParam(String value) {
+            for (ThumbnailSize size : values()) {
+                if (size.param.equalsIgnoreCase(value)) {
+                    return size;
+                }
+            }
+            throw new IllegalArgumentException("Taille d'image inconnue: " + value);
+        }
+    }
+
+    private final FavoriteRepository favoriteRepository;
+    private final WebClient webClient;
+    private final ThumbnailDiskCache cache;
+    private final float jpegQuality;
+    private final Duration downloadTimeout;
+    private final List<String> allowedHosts;
+    // Une requête à la fois par photo : les autres attendent puis lisent le cache
+    private final ConcurrentHashMap<String, Object> downloadLocks = new ConcurrentHashMap<>();
+
+    public ImageThumbnailService(FavoriteRepository favoriteRepository,
+                                 WebClient.Builder webClientBuilder,
+                                 @Value("${vinted.images.cache-dir:./data/images}") Path cacheDir,
+                                 @Value("${vinted.images.cache-max-bytes:209715200}") long cacheMaxBytes,
+                                 @Value("${vinted.images.jpeg-quality:0.8}") float jpegQuality,
+                                 @Value("${vinted.images.download-timeout:15000}") long downloadTimeoutMillis,
+                                 @Value("${vinted.images.allowed-hosts:vinted.net}") List<String> allowedHosts,
+                                 @Value("${vinted.api.user-agent:Mozilla/5.0}") String userAgent) throws IOException {
+        this.favoriteRepository = favoriteRepository;
+        this.webClient = webClientBuilder
+                .defaultHeader(HttpHeaders.USER_AGENT, userAgent)
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
+                .build();
+        this.cache = new ThumbnailDiskCache(cacheDir, cacheMaxBytes);
+        this.jpegQuality = jpegQuality;
+        this.downloadTimeout = Duration.ofMillis(downloadTimeoutMillis);
+        this.allowedHosts = allowedHosts.stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .toList();
+    }
+
+    /**
+     * @return la vignette sur disque, vide si le favori n'existe pas, n'a pas de photo ou une photo hors CDN Vinted
+     * @throws IOException si la photo n'a pas pu être téléchargée ou décodée
+     */
+    public Optional<Path> getThumbnail(Long favoriteId, ThumbnailSize size) throws IOException {
+        Optional<String> imageUrl = findImageUrl(favoriteId);
+        if (imageUrl.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!isAllowed(imageUrl.get())) {
+            log.warn("Photo du favori {} hors des hôtes autorisés, ignorée: {}", favoriteId, imageUrl.get());
+            return Optional.empty();
+        }
+
+        // Le nom dépend de l'URL : une nouvelle photo donne de nouveaux fichiers, les anciens finissent évincés
+        String baseName = favoriteId + "-" + hash(imageUrl.get());
+        Optional<Path> cached = cache.get(fileName(baseName, size));
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Object lock = downloadLocks.computeIfAbsent(baseName, key -> new Object());
+        try {
+            synchronized (lock) {
+                cached = cache.get(fileName(baseName, size));
+                if (cached.isPresent()) {
+                    return cached;
+                }
+                return Optional.of(generate(baseName, imageUrl.get(), size));
+            }
+        } finally {
+            downloadLocks.remove(baseName, lock);
+        }
+    }
+
+    public long getCacheBytes() {
+        return cache.getTotalBytes();
+    }
+
+    private Optional<String> findImageUrl(Long favoriteId) {
+        Optional<String> url = favoriteRepository.findById(favoriteId).map(Favorite::getImageUrl);
+        if (url.isEmpty()) {
+            url = favoriteRepository.findArchivedImageUrl(favoriteId);
+        }
+        return url.filter(value -> !value.isBlank());
+    }
+
+    /**
+     * https uniquement, hôte égal à une entrée de vinted.images.allowed-hosts ou sous-domaine de celle-ci.
+     * Le client ne suit pas les redirections : la réponse vient bien de l'hôte vérifié.
+     */
+    boolean isAllowed(String imageUrl) {
+        URI uri;
+        try {
+            uri = URI.create(imageUrl);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (!"https".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null || uri.getUserInfo() != null) {
+            return false;
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        return allowedHosts.stream().anyMatch(allowed -> host.equals(allowed) || host.endsWith("." + allowed));
+    }
+
+    private Path generate(String baseName, String imageUrl, ThumbnailSize requested) throws IOException {
+        byte[] original = download(imageUrl);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+        if (image == null) {
+            throw new IOException("Format d'image non pris en charge: " + imageUrl);
+        }
+
+        // Écrites ensemble : l'éviction déclenchée par une taille ne peut pas supprimer l'autre
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            files.put(fileName(baseName, size), encodeJpeg(resize(image, size.width)));
+        }
+        Map<String, Path> written = cache.putAll(files);
+        log.debug("Vignettes générées pour {} ({} Ko d'origine)", baseName, original.length / 1024);
+        return written.get(fileName(baseName, requested));
+    }
+
+    private byte[] download(String imageUrl) throws IOException {
+        try {
+            byte[] body = webClient.get()
+                    .uri(URI.create(imageUrl))
+                    .retrieve()
+                    .bodyToMono(byte[].class)
+                    .block(downloadTimeout);
+            if (body == null || body.length == 0) {
+                throw new IOException("Photo vide: " + imageUrl);
+            }
+            return body;
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IOException("Téléchargement impossible: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Réduit à la largeur cible en conservant les proportions, par divisions successives par deux
+     * pour garder une bonne qualité avec un simple filtre bilinéaire. Jamais agrandie.
+     */
+    private BufferedImage resize(BufferedImage source, int targetWidth) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int finalWidth = Math.min(targetWidth, width);
+        int finalHeight = Math.max(1, (int) Math.round((double) height * finalWidth / width));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(finalWidth, width / 2);
+            height = width == finalWidth ? finalHeight : Math.max(1, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = step;
+        } while (width != finalWidth);
+
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam params = writer.getDefaultWriteParam();
+        params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        params.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String fileName(String baseName, ThumbnailSize size) {
+        return baseName + "-" + size.param + ".jpg";
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
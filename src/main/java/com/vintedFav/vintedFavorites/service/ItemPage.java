@@ -0,0 +1,14 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import lombok.Data;
+
+/**
+ * Ce que l'enrichissement extrait de la page HTML d'un article Vinted
+ */
+@Data
+public class ItemPage {
+    private String gender;
+    private String category;
+    private FavoriteDetails details = new FavoriteDetails();
+}
@@ -0,0 +1,67 @@
+package com.vintedFav.vintedFavorites.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Désigne l'instance qui exécute les tâches planifiées (syncs, sonde, archivage, outbox) quand plusieurs
+ * tournent sur la même base : celle qui tient le verrou consultatif "leader". Les autres servent les lectures
+ * et retentent régulièrement leur chance, pour prendre le relais si le leader s'arrête.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderElection {
+
+    private final ClusterLockService lockService;
+
+    private ClusterLockService.ClusterLock leaderLock;
+    private boolean campaigned;
+
+    /**
+     * Appel bloquant (base de données) au premier appel : hors event loop
+     */
+    public synchronized boolean isLeader() {
+        if (!campaigned) {
+            campaign();
+        }
+        return leaderLock != null;
+    }
+
+    @Scheduled(initialDelayString = "${vinted.cluster.leader-check-interval:15000}",
+            fixedDelayString = "${vinted.cluster.leader-check-interval:15000}")
+    public synchronized void campaign() {
+        campaigned = true;
+        if (leaderLock != null && !leaderLock.isHeld()) {
+            log.warn("Connexion du verrou de leader perdue : cette instance n'est plus leader");
+            leaderLock.close();
+            leaderLock = null;
+        }
+        if (leaderLock != null) {
+            return;
+        }
+
+        try {
+            leaderLock = lockService.tryLock("leader").orElse(null);
+        } catch (IllegalStateException e) {
+            log.warn("Élection du leader impossible: {}", e.getMessage());
+            return;
+        }
+        if (leaderLock != null) {
+            log.info("Instance leader : syncs, sonde, archivage et outbox planifiés ici");
+        } else {
+            log.debug("Une autre instance est leader");
+        }
+    }
+
+    @PreDestroy
+    public synchronized void resign() {
+        if (leaderLock != null) {
+            leaderLock.close();
+            leaderLock = null;
+        }
+    }
+}
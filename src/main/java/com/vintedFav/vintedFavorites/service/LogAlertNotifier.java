@@ -0,0 +1,30 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Alert;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LogAlertNotifier implements AlertNotifier {
+
+    @Value("${vinted.alerts.log.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void notify(Alert alert) {
+        log.info("Alerte #{} {} (règle {}): {} ({}) {} -> {}", alert.getId(), alert.getType(), alert.getRuleId(),
+                alert.getTitle(), alert.getVintedId(), alert.getPreviousPrice(), alert.getPrice());
+    }
+}
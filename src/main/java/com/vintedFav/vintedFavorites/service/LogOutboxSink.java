@@ -0,0 +1,34 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class LogOutboxSink implements OutboxSink {
+
+    @Value("${vinted.outbox.log.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("Outbox #{} {} favori {} ({}): {}", event.getId(), event.getEventType(),
+                    event.getFavoriteId(), event.getVintedId(), event.getPayload());
+        }
+    }
+}
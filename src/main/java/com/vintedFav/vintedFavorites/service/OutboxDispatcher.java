@@ -0,0 +1,121 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.OutboxCursor;
+import com.vintedFav.vintedFavorites.model.OutboxEvent;
+import com.vintedFav.vintedFavorites.repository.OutboxCursorRepository;
+import com.vintedFav.vintedFavorites.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Livre l'outbox aux sinks par lots, chacun à partir de son propre curseur.
+ * Le curseur n'avance qu'après une livraison réussie : un lot en échec est retenté au passage suivant.
+ * Les ids croissent dans l'ordre de commit : les transactions qui écrivent l'outbox (FavoriteSyncService) se suivent,
+ * sérialisées par le verrou "outbox" de ClusterLockService. Seule l'instance leader livre.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final List<OutboxSink> sinks;
+    private final OutboxEventRepository eventRepository;
+    private final OutboxCursorRepository cursorRepository;
+    private final LeaderElection leaderElection;
+
+    @Value("${vinted.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${vinted.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${vinted.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(List<OutboxSink> sinks, OutboxEventRepository eventRepository,
+                            OutboxCursorRepository cursorRepository, LeaderElection leaderElection) {
+        this.sinks = sinks;
+        this.eventRepository = eventRepository;
+        this.cursorRepository = cursorRepository;
+        this.leaderElection = leaderElection;
+    }
+
+    @Scheduled(fixedDelayString = "${vinted.outbox.poll-interval:5000}")
+    public void dispatch() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        for (OutboxSink sink : sinks) {
+            if (sink.isEnabled()) {
+                dispatchTo(sink);
+            }
+        }
+    }
+
+    /**
+     * @return nombre d'événements livrés au sink pendant ce passage
+     */
+    int dispatchTo(OutboxSink sink) {
+        long cursor = cursorRepository.findById(sink.name()).map(OutboxCursor::getLastEventId).orElse(0L);
+        int delivered = 0;
+
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<OutboxEvent> batch = eventRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            try {
+                sink.deliver(batch);
+            } catch (Exception e) {
+                log.warn("Outbox: échec de livraison au sink {} après l'événement {}: {}", sink.name(), cursor, e.getMessage());
+                break;
+            }
+
+            cursor = batch.get(batch.size() - 1).getId();
+            cursorRepository.save(new OutboxCursor(sink.name(), cursor, LocalDateTime.now()));
+            delivered += batch.size();
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (delivered > 0) {
+            log.debug("Outbox: {} événements livrés au sink {}", delivered, sink.name());
+        }
+        return delivered;
+    }
+
+    /**
+     * Supprime les événements livrés à tous les sinks actifs et plus vieux que la rétention
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void purgeDelivered() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        long lowestCursor = Long.MAX_VALUE;
+        for (OutboxSink sink : sinks) {
+            if (sink.isEnabled()) {
+                long cursor = cursorRepository.findById(sink.name()).map(OutboxCursor::getLastEventId).orElse(0L);
+                lowestCursor = Math.min(lowestCursor, cursor);
+            }
+        }
+        if (lowestCursor == Long.MAX_VALUE || lowestCursor == 0) {
+            return;
+        }
+
+        int deleted = eventRepository.deleteDelivered(lowestCursor, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Outbox: {} événements livrés purgés", deleted);
+        }
+    }
+}
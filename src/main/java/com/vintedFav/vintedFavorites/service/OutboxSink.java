@@ -0,0 +1,23 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination des événements de l'outbox. Chaque sink avance son propre curseur :
+ * un lot n'est considéré livré que si deliver() se termine sans exception (livraison au moins une fois).
+ */
+public interface OutboxSink {
+
+    /**
+     * Identifiant stable, utilisé comme clé du curseur en base
+     */
+    String name();
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,195 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sonde du statut vendu, bien plus légère qu'une sync : interroge un à un les favoris encore disponibles,
+ * une requête toutes les delay ms, puis écrit en un seul lot ceux qui sont passés vendus.
+ * Lancée par SyncCoordinator (job PROBE).
+ * <p>
+ * Chaque passage sonde au plus max-items favoris (par défaut ce que permet l'intervalle : 80 % de interval / delay) :
+ * d'abord les plus récemment ajoutés aux favoris Vinted (part newest-share, revérifiés à chaque passage),
+ * puis la suite de la rotation sur tous les favoris disponibles, reprise après le dernier favori sondé.
+ * Un favori ancien est donc revérifié tous les N / (max-items × (1 - newest-share)) passages pour N favoris
+ * disponibles : au-delà de quelques milliers, la sync complète reste la référence pour les plus anciens.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SoldStatusProbeService {
+
+    private static final RowMapper<Candidate> CANDIDATE_MAPPER =
+            (rs, row) -> new Candidate(rs.getLong("id"), rs.getString("vinted_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VintedApiService vintedApiService;
+    private final FavoriteSyncService favoriteSyncService;
+    private final Scheduler jdbcScheduler;
+
+    // 0 : déduit de l'intervalle entre deux passages
+    @Value("${vinted.probe.max-items:0}")
+    private int configuredMaxItems;
+
+    @Value("${vinted.probe.interval:300000}")
+    private long intervalMs;
+
+    @Value("${vinted.probe.delay:1500}")
+    private long delayMs;
+
+    @Value("${vinted.probe.newest-share:0.25}")
+    private double newestShare;
+
+    // Dernier id sondé par la rotation : le passage suivant continue après lui, puis repart du début
+    private volatile long cursor;
+
+    /**
+     * Émet le bilan du passage : favoris sondés, passés vendus, sans réponse exploitable
+     */
+    public Mono<Map<String, Object>> probe(SyncJob job) {
+        return Mono.fromCallable(this::nextCandidates)
+                .subscribeOn(jdbcScheduler)
+                .flatMap(candidates -> probeCandidates(job, candidates));
+    }
+
+    private Mono<Map<String, Object>> probeCandidates(SyncJob job, List<Candidate> candidates) {
+        job.progress("probe", 0, candidates.size());
+        if (candidates.isEmpty()) {
+            return Mono.just(summary(0, List.of(), 0));
+        }
+
+        List<Long> closed = new ArrayList<>();
+        AtomicInteger checked = new AtomicInteger();
+        AtomicInteger unknown = new AtomicInteger();
+        return Flux.fromIterable(candidates)
+                // Arrêt de l'application : plus de nouvelle requête, les statuts déjà lus sont écrits
+                .takeWhile(candidate -> !job.isStopRequested())
+                .concatMap(candidate -> job.pause(Duration.ofMillis(delayMs))
+                        .then(vintedApiService.fetchItemClosed(candidate.vintedId))
+                        .doOnNext(isClosed -> {
+                            if (isClosed) {
+                                closed.add(candidate.id);
+                            }
+                        })
+                        .switchIfEmpty(Mono.<Boolean>fromRunnable(unknown::incrementAndGet))
+                        .onErrorResume(SoldStatusProbeService::isItemError, e -> {
+                            log.debug("Sonde {}: {}", candidate.vintedId, e.getMessage());
+                            unknown.incrementAndGet();
+                            return Mono.empty();
+                        })
+                        .then(Mono.fromRunnable(() -> {
+                            if (candidate.rotating) {
+                                cursor = candidate.id;
+                            }
+                            job.progress("probe", checked.incrementAndGet(), candidates.size());
+                        })))
+                // Session expirée, 429 : le passage s'arrête, les statuts déjà lus sont quand même écrits
+                .onErrorResume(e -> {
+                    log.warn("Sonde interrompue après {} favoris: {}", checked.get(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.fromCallable(() -> favoriteSyncService.applySoldStatus(closed)).subscribeOn(jdbcScheduler))
+                .map(sold -> {
+                    log.info("Sonde: {} favoris vérifiés, {} vendus, {} sans réponse", checked.get(), sold.size(), unknown.get());
+                    return summary(checked.get(), sold.stream().map(Favorite::getId).toList(), unknown.get());
+                });
+    }
+
+    /**
+     * Favoris du prochain passage : les plus récents d'abord, puis la rotation à partir du curseur
+     * (revenue au début de la table une fois la fin atteinte), sans doublon
+     */
+    List<Candidate> nextCandidates() {
+        int limit = getMaxItems();
+        int newest = (int) Math.round(limit * Math.max(0, Math.min(newestShare, 1)));
+        List<Candidate> candidates = new ArrayList<>(jdbcTemplate.query(
+                "SELECT id, vinted_id FROM favorites WHERE sold = FALSE ORDER BY favorite_order, id DESC LIMIT ?",
+                CANDIDATE_MAPPER, newest));
+        Set<Long> chosen = new HashSet<>();
+        candidates.forEach(candidate -> chosen.add(candidate.id));
+
+        // Les plus récents peuvent aussi sortir de la rotation : lus en trop puis écartés
+        long from = cursor;
+        addRotating(candidates, chosen, limit, jdbcTemplate.query(
+                "SELECT id, vinted_id FROM favorites WHERE sold = FALSE AND id > ? ORDER BY id LIMIT ?",
+                CANDIDATE_MAPPER, from, limit));
+        if (candidates.size() < limit && from > 0) {
+            // Fin de la table atteinte : on complète avec le début
+            addRotating(candidates, chosen, limit, jdbcTemplate.query(
+                    "SELECT id, vinted_id FROM favorites WHERE sold = FALSE AND id <= ? ORDER BY id LIMIT ?",
+                    CANDIDATE_MAPPER, from, limit));
+        }
+        return candidates;
+    }
+
+    private static void addRotating(List<Candidate> candidates, Set<Long> chosen, int limit, List<Candidate> rotation) {
+        for (Candidate candidate : rotation) {
+            if (candidates.size() >= limit) {
+                return;
+            }
+            if (chosen.add(candidate.id)) {
+                candidate.rotating = true;
+                candidates.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Borne d'un passage : vinted.probe.max-items, sinon ce qui tient dans 80 % de l'intervalle
+     * (le reste couvre le temps de réponse de Vinted)
+     */
+    public int getMaxItems() {
+        if (configuredMaxItems > 0) {
+            return configuredMaxItems;
+        }
+        return (int) Math.max(1, intervalMs * 8 / 10 / Math.max(delayMs, 1));
+    }
+
+    /**
+     * Article introuvable ou illisible : seul ce favori est passé, la sync tranchera
+     */
+    private static boolean isItemError(Throwable e) {
+        return e instanceof WebClientResponseException response
+                && response.getStatusCode().is4xxClientError()
+                && response.getStatusCode().value() != 429;
+    }
+
+    private static Map<String, Object> summary(int checked, List<Long> sold, int unknown) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("checked", checked);
+        summary.put("sold", sold.size());
+        summary.put("soldIds", sold);
+        summary.put("unknown", unknown);
+        return summary;
+    }
+
+    static class Candidate {
+        final long id;
+        final String vintedId;
+        // Sorti de la rotation (et non des plus récents) : fait avancer le curseur
+        boolean rotating;
+
+        private Candidate(long id, String vintedId) {
+            this.id = id;
+            this.vintedId = vintedId;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.SyncCheckpoint;
+import com.vintedFav.vintedFavorites.model.SyncCheckpointPage;
+import com.vintedFav.vintedFavorites.repository.SyncCheckpointPageRepository;
+import com.vintedFav.vintedFavorites.repository.SyncCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checkpoints des syncs complètes : chaque page téléchargée est enregistrée avec l'avancement du run,
+ * puis le tout est supprimé une fois la sync appliquée en base.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncCheckpointService {
+
+    private static final TypeReference<List<Favorite>> FAVORITE_LIST = new TypeReference<>() { };
+
+    private final SyncCheckpointRepository checkpointRepository;
+    private final SyncCheckpointPageRepository pageRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${vinted.sync.checkpoint-max-age-hours:12}")
+    private int checkpointMaxAgeHours;
+
+    /**
+     * Checkpoint du dernier run interrompu, s'il est encore exploitable. Un checkpoint trop ancien
+     * (ses pages ne reflètent plus Vinted) ou pris avec une autre taille de page est abandonné.
+     */
+    public Optional<SyncCheckpoint> findResumable(int perPage) {
+        Optional<SyncCheckpoint> latest = checkpointRepository.findFirstByOrderByUpdatedAtDesc();
+        if (latest.isEmpty()) {
+            return latest;
+        }
+
+        SyncCheckpoint checkpoint = latest.get();
+        boolean expired = checkpoint.getUpdatedAt().isBefore(LocalDateTime.now().minusHours(checkpointMaxAgeHours));
+        if (expired || checkpoint.getPerPage() != perPage) {
+            log.info("Checkpoint de sync {} abandonné (page {}, mis à jour le {})",
+                    checkpoint.getRunId(), checkpoint.getLastPage(), checkpoint.getUpdatedAt());
+            // Suppression en cascade des pages (clé étrangère ON DELETE CASCADE)
+            checkpointRepository.deleteAllInBatch();
+            return Optional.empty();
+        }
+        return latest;
+    }
+
+    /**
+     * Enregistre une page téléchargée et fait avancer le checkpoint du run (créé à la première page)
+     */
+    public SyncCheckpoint recordPage(String runId, int page, int perPage, List<Favorite> favorites) {
+        String payload = toJson(favorites);
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            SyncCheckpoint checkpoint = checkpointRepository.findById(runId).orElseGet(() -> new SyncCheckpoint(
+                    runId, perPage, 0, 0, favorites.isEmpty() ? null : favorites.get(0).getVintedId(), false, now, now));
+            checkpoint.setLastPage(page);
+            checkpoint.setFetchedCount(checkpoint.getFetchedCount() + favorites.size());
+            checkpoint.setFetchComplete(favorites.size() < perPage);
+            checkpoint.setUpdatedAt(now);
+            // Écrit avant la page, qui y fait référence
+            SyncCheckpoint saved = checkpointRepository.saveAndFlush(checkpoint);
+            pageRepository.save(new SyncCheckpointPage(null, runId, page, payload, now));
+            return saved;
+        });
+    }
+
+    /**
+     * Reprise d'un run : favoris relus après le dernier favori enregistré, enregistrés comme une page à part
+     * sous le numéro de la page Vinted où ils ont été lus (sans réécrire les pages déjà enregistrées) ;
+     * le checkpoint avance jusqu'à cette page
+     */
+    public void recordResume(String runId, int page, List<Favorite> favorites, boolean complete) {
+        String payload = favorites.isEmpty() ? null : toJson(favorites);
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (payload != null) {
+                pageRepository.save(new SyncCheckpointPage(null, runId, page, payload, now));
+            }
+
+            SyncCheckpoint checkpoint = checkpointRepository.findById(runId).orElseThrow();
+            checkpoint.setLastPage(page);
+            checkpoint.setFetchedCount(checkpoint.getFetchedCount() + favorites.size());
+            checkpoint.setFetchComplete(complete);
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Favoris de toutes les pages enregistrées du run, dans l'ordre Vinted
+     */
+    public List<Favorite> loadFavorites(String runId) {
+        List<Favorite> favorites = new ArrayList<>();
+        for (SyncCheckpointPage page : pageRepository.findByRunIdOrderByPageNumberAscIdAsc(runId)) {
+            favorites.addAll(fromJson(page));
+        }
+        return favorites;
+    }
+
+    /**
+     * Supprime le checkpoint et ses pages : sync appliquée, ou run abandonné
+     */
+    public void discard(String runId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            pageRepository.deleteByRunId(runId);
+            checkpointRepository.deleteById(runId);
+        });
+    }
+
+    private List<Favorite> fromJson(SyncCheckpointPage page) {
+        try {
+            return objectMapper.readValue(page.getPayload(), FAVORITE_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Page " + page.getPageNumber() + " du checkpoint " + page.getRunId() + " illisible", e);
+        }
+    }
+
+    private String toJson(List<Favorite> favorites) {
+        try {
+            return objectMapper.writeValueAsString(favorites);
+        } catch (JsonProcessingException e) {
+            // Entités simples : ne peut pas échouer en pratique
+            throw new IllegalStateException("Sérialisation de la page impossible", e);
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Point d'entrée unique des syncs (API, démarrage, planificateur), des enrichissements et des sondes du statut vendu :
+ * au plus un job actif de chaque type à la fois. Un appel pendant une exécution
+ * rejoint le job en cours au lieu d'en lancer un second ; une sonde n'est pas lancée pendant une sync.
+ * Chaque job tient aussi un verrou partagé (ClusterLockService) : avec plusieurs instances, un job déjà
+ * en cours ailleurs échoue aussitôt au lieu de tourner deux fois, sauf un enrichissement qui porte des demandes
+ * de l'interface : il attend le verrou.
+ * <p>
+ * À l'arrêt de l'application (SmartLifecycle, phase par défaut : avant l'arrêt gracieux du serveur web),
+ * plus aucun job n'est accepté ; ceux en cours terminent leur élément courant (page de la sync, déjà dans
+ * le checkpoint, favori enrichi, article sondé) puis s'arrêtent. Passé vinted.shutdown.drain-timeout,
+ * ils sont annulés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncCoordinator implements SmartLifecycle {
+
+    private static final String SHUTTING_DOWN = "Arrêt de l'application en cours";
+
+    private final VintedApiService vintedApiService;
+    private final VintedSessionService sessionService;
+    private final EnrichmentQueue enrichmentQueue;
+    private final SoldStatusProbeService probeService;
+    private final ClusterLockService lockService;
+    private final CacheStatisticsService cacheService;
+
+    @Value("${vinted.jobs.history:20}")
+    private int jobHistory;
+
+    @Value("${vinted.cluster.lock-retry-interval:10000}")
+    private long lockRetryMs;
+
+    @Value("${vinted.shutdown.drain-timeout:20000}")
+    private long drainTimeoutMs;
+
+    private final Map<String, SyncJob> jobs = new LinkedHashMap<>();
+    // Annulation forcée des jobs encore actifs une fois le délai d'arrêt dépassé
+    private final Map<SyncJob, Sinks.One<Boolean>> killSwitches = new HashMap<>();
+
+    private boolean running;
+    private boolean accepting = true;
+
+    private SyncJob activeSync;
+    private Mono<SyncResult> activeSyncResult;
+    private SyncJob activeEnrichment;
+    private SyncJob activeProbe;
+
+    /**
+     * Lance une sync (ou rejoint celle en cours) et rend son job sans attendre la fin
+     */
+    public SyncJob startSync(String trigger) {
+        return submitSync(trigger).job;
+    }
+
+    /**
+     * Lance une sync (ou rejoint celle en cours) et émet son résultat une fois terminée
+     */
+    public Mono<SyncResult> runSync(String trigger) {
+        return submitSync(trigger).result;
+    }
+
+    /**
+     * Lance un enrichissement (ou rend celui en cours)
+     */
+    public synchronized SyncJob startEnrichment(String trigger) {
+        if (activeEnrichment != null) {
+            return activeEnrichment;
+        }
+        if (!accepting) {
+            return refused(SyncJob.Type.ENRICHMENT, trigger);
+        }
+
+        SyncJob job = register(new SyncJob(SyncJob.Type.ENRICHMENT, trigger));
+        activeEnrichment = job;
+        log.info("Job {} : enrichissement ({})", job.getId(), trigger);
+
+        exclusively("enrichment", () -> vintedApiService.enrichAllUntilComplete(job))
+                .retryWhen(whileLockBusy(job))
+                .doOnSuccess(enriched -> job.succeed(Map.of("enriched", enriched != null ? enriched : 0)))
+                .doOnError(e -> {
+                    if (e instanceof ClusterLockService.LockBusyException) {
+                        // L'autre instance enrichit déjà les favoris incomplets ; rien en file ici
+                        log.info("Job {} : {}", job.getId(), e.getMessage());
+                        job.fail(e);
+                        return;
+                    }
+                    log.error("Erreur enrichissement background: {}", e.getMessage());
+                    job.fail(e);
+                    enrichmentQueue.failAll(e);
+                })
+                .transform(work -> killable(job, work))
+                .doFinally(signal -> enrichmentFinished(job))
+                .subscribe(null, e -> { });
+        return job;
+    }
+
+    /**
+     * Enrichit un favori avant le reste de la file (lance l'enrichissement s'il ne tourne pas) ;
+     * le résultat est le favori enrichi, ou l'erreur rencontrée sur sa page Vinted.
+     */
+    public synchronized CompletableFuture<Favorite> enrichNow(Favorite favorite) {
+        if (!accepting) {
+            return CompletableFuture.failedFuture(new IllegalStateException(SHUTTING_DOWN));
+        }
+        CompletableFuture<Favorite> result = enrichmentQueue.submitInteractive(favorite);
+        startEnrichment("on-demand");
+        return result;
+    }
+
+    /**
+     * Lance une sonde du statut vendu (ou rend celle en cours) ; vide pendant une sync, qui relit déjà tous les statuts
+     */
+    public synchronized Optional<SyncJob> startProbe(String trigger) {
+        if (activeProbe != null) {
+            return Optional.of(activeProbe);
+        }
+        if (activeSync != null) {
+            log.debug("Sonde '{}' ignorée : sync en cours (job {})", trigger, activeSync.getId());
+            return Optional.empty();
+        }
+        if (!accepting) {
+            log.debug("Sonde '{}' ignorée : {}", trigger, SHUTTING_DOWN);
+            return Optional.empty();
+        }
+
+        SyncJob job = register(new SyncJob(SyncJob.Type.PROBE, trigger));
+        activeProbe = job;
+        log.info("Job {} : sonde du statut vendu ({})", job.getId(), trigger);
+
+        exclusively("probe", () -> probeService.probe(job))
+                .doOnSuccess(job::succeed)
+                .doOnError(e -> {
+                    log.error("Erreur sonde (job {}): {}", job.getId(), e.getMessage());
+                    job.fail(e);
+                })
+                .transform(work -> killable(job, work))
+                .doFinally(signal -> probeFinished(job))
+                .subscribe(null, e -> { });
+        return Optional.of(job);
+    }
+
+    public synchronized Optional<SyncJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public synchronized List<SyncJob> getRecentJobs() {
+        List<SyncJob> recent = new ArrayList<>(jobs.values());
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    private synchronized ActiveSync submitSync(String trigger) {
+        if (activeSync != null) {
+            log.info("Sync déjà en cours (job {}) : demande '{}' rattachée", activeSync.getId(), trigger);
+            return new ActiveSync(activeSync, activeSyncResult);
+        }
+        if (!accepting) {
+            return new ActiveSync(refused(SyncJob.Type.SYNC, trigger), Mono.error(new IllegalStateException(SHUTTING_DOWN)));
+        }
+
+        SyncJob job = register(new SyncJob(SyncJob.Type.SYNC, trigger));
+        log.info("Job {} : sync ({})", job.getId(), trigger);
+
+        Mono<SyncResult> result = exclusively("sync", () -> ensureSession(job)
+                        .then(Mono.defer(() -> vintedApiService.syncAllFavorites(job))))
+                .doOnSuccess(syncResult -> {
+                    Map<String, Object> summary = new LinkedHashMap<>();
+                    summary.put("fetched", syncResult.getFetchedCount());
+                    summary.put("new", syncResult.getNewCount());
+                    summary.put("changed", syncResult.getChangedCount());
+                    summary.put("repriced", syncResult.getRepricedCount());
+                    summary.put("sold", syncResult.getNewlySold().size());
+                    summary.put("alerts", syncResult.getAlertCount());
+                    if (syncResult.getResumedFromPage() > 0) {
+                        summary.put("resumedFromPage", syncResult.getResumedFromPage());
+                    }
+                    job.succeed(summary);
+                    startEnrichmentAfterSync();
+                })
+                .doOnError(e -> {
+                    log.error("Erreur sync (job {}): {}", job.getId(), e.getMessage());
+                    job.fail(e);
+                })
+                .transform(work -> killable(job, work))
+                .doFinally(signal -> syncFinished(job))
+                .cache();
+
+        activeSync = job;
+        activeSyncResult = result;
+        result.subscribe(null, e -> { });
+        return new ActiveSync(job, result);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        accepting = true;
+    }
+
+    /**
+     * Bloque jusqu'à la fin des jobs en cours, au plus drain-timeout ; appelé avant la fermeture
+     * du pool de connexions et des autres beans dont les jobs dépendent
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        accepting = false;
+        List<SyncJob> active = activeJobs();
+        if (active.isEmpty()) {
+            return;
+        }
+
+        log.info("Arrêt : {} job(s) en cours, fin de l'élément courant attendue (au plus {} ms)", active.size(), drainTimeoutMs);
+        active.forEach(SyncJob::requestStop);
+        awaitIdle(drainTimeoutMs);
+
+        active = activeJobs();
+        if (active.isEmpty()) {
+            log.info("Arrêt : jobs terminés");
+            return;
+        }
+        IllegalStateException timeout = new IllegalStateException(SHUTTING_DOWN + " : job interrompu après " + drainTimeoutMs + " ms");
+        for (SyncJob job : active) {
+            log.warn("Arrêt : job {} ({}) annulé, délai dépassé", job.getId(), job.getType());
+            job.fail(timeout);
+            Sinks.One<Boolean> kill = killSwitches.get(job);
+            if (kill != null) {
+                kill.tryEmitValue(true);
+            }
+        }
+        enrichmentQueue.failAll(timeout);
+        // Libération des verrous après annulation
+        awaitIdle(2000);
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Session expirée avec identifiants configurés : login Playwright avant la sync.
+     * Le simple jeton périmé est rafraîchi pendant la sync (VintedAuthService.ensureValidToken).
+     */
+    private Mono<Void> ensureSession(SyncJob job) {
+        if (vintedApiService.isSessionValid()) {
+            return Mono.empty();
+        }
+        if (!sessionService.hasCredentials()) {
+            return Mono.error(new IllegalStateException("Session expirée - configurez vos identifiants avec POST /api/vinted/credentials"));
+        }
+
+        log.info("Session expirée - lancement automatique du refresh Playwright...");
+        job.progress("session", 0, 1);
+        return Mono.fromFuture(sessionService.refreshSession())
+                .flatMap(success -> {
+                    if (!success) {
+                        return Mono.error(new IllegalStateException("Échec du rafraîchissement automatique de la session"));
+                    }
+                    job.progress("session", 1, 1);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Job sous verrou partagé ; les cookies, peut-être renouvelés par une autre instance, sont relus en base
+     */
+    private <T> Mono<T> exclusively(String lockName, Supplier<Mono<T>> work) {
+        return lockService.withLock(lockName, () -> {
+            cacheService.evictVintedSession();
+            return work.get();
+        });
+    }
+
+    /**
+     * Enrichissement en cours sur une autre instance : les demandes de l'interface reçues ici restent en file
+     * (l'appelant reçoit 202) et le verrou est retenté tous les lock-retry-interval ms tant qu'elles attendent
+     */
+    private Retry whileLockBusy(SyncJob job) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            if (!(signal.failure() instanceof ClusterLockService.LockBusyException)
+                    || enrichmentQueue.isEmpty() || job.isStopRequested()) {
+                return Mono.error(signal.failure());
+            }
+            if (signal.totalRetries() == 0) {
+                log.info("Job {} : enrichissement en cours sur une autre instance, {} demande(s) en attente du verrou",
+                        job.getId(), enrichmentQueue.size());
+                job.progress("lock", 0, 1);
+            }
+            return job.pause(Duration.ofMillis(lockRetryMs)).thenReturn(signal.totalRetries());
+        }));
+    }
+
+    private synchronized void startEnrichmentAfterSync() {
+        if (!accepting) {
+            // La file sera reconstruite au prochain démarrage à partir des favoris incomplets
+            return;
+        }
+        if (activeEnrichment != null) {
+            // Les nouveaux favoris rejoignent la file en cours, devant les plus anciens
+            int added = enrichmentQueue.offerBackfill(vintedApiService.getFavoritesNeedingEnrichment());
+            log.info("{} favoris ajoutés à l'enrichissement en cours (job {})", added, activeEnrichment.getId());
+            return;
+        }
+        startEnrichment("after-sync");
+    }
+
+    private synchronized void syncFinished(SyncJob job) {
+        if (activeSync == job) {
+            activeSync = null;
+            activeSyncResult = null;
+        }
+        jobFinished(job);
+    }
+
+    private synchronized void enrichmentFinished(SyncJob job) {
+        if (activeEnrichment == job) {
+            activeEnrichment = null;
+        }
+        jobFinished(job);
+        if (!accepting) {
+            // Demandes de l'interface encore en file : réponse d'erreur plutôt qu'une attente sans fin
+            enrichmentQueue.failAll(new IllegalStateException(SHUTTING_DOWN));
+            return;
+        }
+        // Tâche ajoutée après que l'enrichissement a trouvé la file vide
+        if (!enrichmentQueue.isEmpty()) {
+            startEnrichment("queued");
+        }
+    }
+
+    private synchronized void probeFinished(SyncJob job) {
+        if (activeProbe == job) {
+            activeProbe = null;
+        }
+        jobFinished(job);
+    }
+
+    private synchronized void jobFinished(SyncJob job) {
+        killSwitches.remove(job);
+        // Réveille stop() qui attend la fin des jobs
+        notifyAll();
+    }
+
+    /**
+     * Placé après la mise à jour du job : une fois annulé, le job est déjà marqué en échec et rien d'autre ne s'exécute.
+     * L'annulation remonte jusqu'au verrou partagé et à la requête Vinted en cours.
+     */
+    private synchronized <T> Mono<T> killable(SyncJob job, Mono<T> work) {
+        Sinks.One<Boolean> kill = Sinks.one();
+        killSwitches.put(job, kill);
+        return work.takeUntilOther(kill.asMono());
+    }
+
+    private synchronized List<SyncJob> activeJobs() {
+        List<SyncJob> active = new ArrayList<>();
+        for (SyncJob job : new SyncJob[] { activeSync, activeEnrichment, activeProbe }) {
+            if (job != null) {
+                active.add(job);
+            }
+        }
+        return active;
+    }
+
+    private synchronized void awaitIdle(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        try {
+            long remaining;
+            while (!activeJobs().isEmpty() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Demande reçue pendant l'arrêt : job enregistré directement en échec, visible dans /api/vinted/jobs
+     */
+    private SyncJob refused(SyncJob.Type type, String trigger) {
+        SyncJob job = register(new SyncJob(type, trigger));
+        job.fail(new IllegalStateException(SHUTTING_DOWN));
+        log.info("Job {} ({}, {}) refusé : {}", job.getId(), type, trigger, SHUTTING_DOWN);
+        return job;
+    }
+
+    private SyncJob register(SyncJob job) {
+        jobs.put(job.getId(), job);
+        while (jobs.size() > Math.max(jobHistory, 1)) {
+            String oldest = jobs.keySet().iterator().next();
+            if (jobs.get(oldest).isRunning()) {
+                break;
+            }
+            jobs.remove(oldest);
+        }
+        return job;
+    }
+
+    private static class ActiveSync {
+        private final SyncJob job;
+        private final Mono<SyncResult> result;
+
+        private ActiveSync(SyncJob job, Mono<SyncResult> result) {
+            this.job = job;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.vintedFav.vintedFavorites.service;
+
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Exécution d'une sync, d'un enrichissement ou d'une sonde du statut vendu suivie par SyncCoordinator.
+ * Mise à jour depuis les threads Reactor, lue par l'API : tout accès passe par le moniteur de l'objet.
+ */
+public class SyncJob {
+
+    public enum Type { SYNC, ENRICHMENT, PROBE }
+
+    public enum Status { RUNNING, SUCCEEDED, FAILED }
+
+    @Getter
+    private final String id = UUID.randomUUID().toString();
+    @Getter
+    private final Type type;
+    private final String trigger;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private Status status = Status.RUNNING;
+    private LocalDateTime finishedAt;
+    private String currentStage;
+    private String error;
+    private boolean stopRequested;
+    private final Sinks.One<Boolean> stopSignal = Sinks.one();
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final Map<String, Object> summary = new LinkedHashMap<>();
+
+    public SyncJob(Type type, String trigger) {
+        this.type = type;
+        this.trigger = trigger;
+    }
+
+    /**
+     * Avancement d'une étape ; total vaut null tant qu'il n'est pas connu (pagination)
+     */
+    public synchronized void progress(String stage, int processed, Integer total) {
+        if (!stage.equals(currentStage)) {
+            Stage previous = currentStage != null ? stages.get(currentStage) : null;
+            if (previous != null && previous.finishedAt == null) {
+                previous.finishedAt = LocalDateTime.now();
+            }
+            currentStage = stage;
+        }
+        Stage current = stages.computeIfAbsent(stage, s -> new Stage());
+        current.processed = processed;
+        current.total = total;
+    }
+
+    public synchronized void succeed(Map<String, Object> result) {
+        if (status != Status.RUNNING) {
+            return;
+        }
+        summary.putAll(result);
+        finish(Status.SUCCEEDED);
+    }
+
+    public synchronized void fail(Throwable e) {
+        if (status != Status.RUNNING) {
+            return;
+        }
+        error = e.getMessage();
+        finish(Status.FAILED);
+    }
+
+    public synchronized boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    /**
+     * Arrêt de l'application : le job termine l'élément en cours (page, favori) puis s'arrête de lui-même
+     */
+    public synchronized void requestStop() {
+        stopRequested = true;
+        stopSignal.tryEmitValue(true);
+    }
+
+    public synchronized boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    /**
+     * Pause entre deux requêtes Vinted, écourtée si l'arrêt est demandé entre-temps
+     */
+    public Mono<Void> pause(Duration duration) {
+        return Mono.delay(duration).then().takeUntilOther(stopSignal.asMono());
+    }
+
+    private void finish(Status outcome) {
+        LocalDateTime now = LocalDateTime.now();
+        stages.values().stream().filter(s -> s.finishedAt == null).forEach(s -> s.finishedAt = now);
+        status = outcome;
+        finishedAt = now;
+    }
+
+    /**
+     * Vue figée du job pour /api/vinted/jobs : étapes avec débit (éléments/s) et ETA
+     */
+    public synchronized Map<String, Object> toStatus() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", id);
+        view.put("type", type);
+        view.put("trigger", trigger);
+        view.put("status", status);
+        view.put("startedAt", startedAt);
+        view.put("finishedAt", finishedAt);
+        view.put("currentStage", status == Status.RUNNING ? currentStage : null);
+
+        Map<String, Object> stageViews = new LinkedHashMap<>();
+        stages.forEach((name, stage) -> stageViews.put(name, stage.toStatus()));
+        view.put("stages", stageViews);
+
+        Stage current = currentStage != null ? stages.get(currentStage) : null;
+        view.put("etaSeconds", status == Status.RUNNING && current != null ? current.etaSeconds() : null);
+        if (!summary.isEmpty()) {
+            view.put("result", summary);
+        }
+        if (error != null) {
+            view.put("error", error);
+        }
+        return view;
+    }
+
+    private static class Stage {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private LocalDateTime finishedAt;
+        private int processed;
+        private Integer total;
+
+        private double throughput() {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            long millis = Duration.between(startedAt, end).toMillis();
+            return millis > 0 ? processed * 1000.0 / millis : 0;
+        }
+
+        private Long etaSeconds() {
+            double throughput = throughput();
+            if (finishedAt != null || total == null || throughput <= 0) {
+                return null;
+            }
+            return Math.round(Math.max(total - processed, 0) / throughput);
+        }
+
+        private Map<String, Object> toStatus() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("processed", processed);
+            view.put("total", total);
+            view.put("startedAt", startedAt);
+            view.put("finishedAt", finishedAt);
+            view.put("throughputPerSecond", Math.round(throughput() * 100) / 100.0);
+            view.put("etaSeconds", etaSeconds());
+            return view;
+        }
+    }
+}
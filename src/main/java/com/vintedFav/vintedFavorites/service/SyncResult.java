@@ -0,0 +1,29 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan d'une synchronisation appliquée en base
+ */
+@Data
+public class SyncResult {
+    private int fetchedCount;
+    private int newCount;
+    private int changedCount;    // contenu modifié chez Vinted (empreinte différente)
+    private int reorderedCount;  // contenu identique, seul l'ordre a bougé
+    private int unchangedCount;  // rien écrit
+    private int archivedCount;   // vendus déjà archivés, laissés dans favorites_archive
+    private int repricedCount;   // prix différent de celui en base
+    private int alertCount;      // alertes déclenchées par les changements de prix et de statut
+    private int resumedFromPage; // 0, ou page de reprise d'un run interrompu (checkpoint)
+    private List<Favorite> upserted = new ArrayList<>();
+    private List<Favorite> newlySold = new ArrayList<>();
+
+    public boolean hasChanges() {
+        return newCount > 0 || changedCount > 0 || reorderedCount > 0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.vintedFav.vintedFavorites.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Répertoire de vignettes borné en taille, vidé du moins récemment utilisé au plus récent.
+ * L'ordre d'accès vit en mémoire ; la date de modification des fichiers le conserve d'un redémarrage à l'autre.
+ */
+@Slf4j
+final class ThumbnailDiskCache {
+
+    // Limite les écritures de métadonnées : un fichier lu souvent n'est « touché » qu'une fois par heure
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    // nom de fichier -> taille, du moins récemment au plus récemment lu
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    ThumbnailDiskCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    synchronized Optional<Path> get(String name) {
+        if (entries.get(name) == null) {
+            return Optional.empty();
+        }
+
+        Path file = directory.resolve(name);
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.toInstant().isBefore(Instant.now().minus(TOUCH_INTERVAL))) {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            }
+            return Optional.of(file);
+        } catch (IOException e) {
+            // Supprimé hors de l'application : l'entrée est oubliée et la vignette sera régénérée
+            totalBytes -= entries.remove(name);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Écrit les fichiers de façon atomique puis évince les plus anciens si la limite est dépassée,
+     * sans jamais supprimer l'un de ceux qui viennent d'être écrits (toutes les tailles d'une même photo)
+     * @return nom de fichier -> chemin, dans l'ordre de files
+     */
+    synchronized Map<String, Path> putAll(Map<String, byte[]> files) throws IOException {
+        Map<String, Path> written = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+            String name = entry.getKey();
+            byte[] content = entry.getValue();
+            Path file = directory.resolve(name);
+            Path temp = directory.resolve(name + TEMP_SUFFIX);
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Long previous = entries.put(name, (long) content.length);
+            totalBytes += content.length - (previous != null ? previous : 0);
+            written.put(name, file);
+        }
+        evict(written.keySet());
+        return written;
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(Set<String> justWritten) {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (justWritten.contains(entry.getKey())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer la vignette {}: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        }
+
+        List<Path> ordered = files.stream()
+                .filter(file -> {
+                    if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                        // Écriture interrompue par un arrêt brutal
+                        file.toFile().delete();
+                        return false;
+                    }
+                    return true;
+                })
+                .sorted(Comparator.comparing(ThumbnailDiskCache::lastModified))
+                .toList();
+        for (Path file : ordered) {
+            long length = file.toFile().length();
+            entries.put(file.getFileName().toString(), length);
+            totalBytes += length;
+        }
+        evict(Set.of());
+        log.info("Cache de vignettes: {} fichiers, {} Ko dans {}", entries.size(), totalBytes / 1024, directory);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
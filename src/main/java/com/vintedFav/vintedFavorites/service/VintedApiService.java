@@ -3,18 +3,31 @@ package com.vintedFav.vintedFavorites.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import com.vintedFav.vintedFavorites.model.SyncCheckpoint;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.HtmlUtils;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
@@ -24,6 +37,14 @@ public class VintedApiService {
     private final VintedCookieService cookieService;
     private final FavoriteService favoriteService;
     private final ObjectMapper objectMapper;
+    private final FavoriteEventService eventService;
+    private final FavoriteSyncService favoriteSyncService;
+    private final FavoriteDetailsService detailsService;
+    private final SyncCheckpointService checkpointService;
+    private final EnrichmentQueue enrichmentQueue;
+    private final EnrichmentWriteBuffer writeBuffer;
+    // Tout accès base depuis les chaînes WebClient passe par ce scheduler, jamais par l'event loop
+    private final Scheduler jdbcScheduler;
 
     @org.springframework.context.annotation.Lazy
     @org.springframework.beans.factory.annotation.Autowired
@@ -34,11 +55,22 @@ public class VintedApiService {
     private VintedSessionService sessionService;
 
     public VintedApiService(WebClient webClient, VintedCookieService cookieService,
-                           FavoriteService favoriteService, ObjectMapper objectMapper) {
+                           FavoriteService favoriteService, ObjectMapper objectMapper,
+                           FavoriteEventService eventService, FavoriteSyncService favoriteSyncService,
+                           FavoriteDetailsService detailsService, SyncCheckpointService checkpointService,
+                           EnrichmentQueue enrichmentQueue, EnrichmentWriteBuffer writeBuffer,
+                           Scheduler jdbcScheduler) {
         this.webClient = webClient;
         this.cookieService = cookieService;
         this.favoriteService = favoriteService;
         this.objectMapper = objectMapper;
+        this.eventService = eventService;
+        this.favoriteSyncService = favoriteSyncService;
+        this.detailsService = detailsService;
+        this.checkpointService = checkpointService;
+        this.enrichmentQueue = enrichmentQueue;
+        this.writeBuffer = writeBuffer;
+        this.jdbcScheduler = jdbcScheduler;
     }
 
     @Value("${vinted.api.base-url:https://www.vinted.fr}")
@@ -59,128 +91,143 @@ public class VintedApiService {
     @Value("${vinted.api.favorites-per-page:96}")
     private int favoritesPerPage;
 
-    // ==================== SYNC ALL (avec enrichissement en arrière-plan) ====================
+    @Value("${vinted.sync.page-retries:3}")
+    private int pageRetries;
+
+    @Value("${vinted.sync.page-retry-backoff:1000}")
+    private long pageRetryBackoffMs;
+
+    @Value("${vinted.sync.page-retry-max-backoff:30000}")
+    private long pageRetryMaxBackoffMs;
+
+    // ==================== SYNC ALL ====================
 
     /**
-     * Synchronise tous les favoris et lance l'enrichissement en arrière-plan
-     * Retourne immédiatement après la synchro pour éviter les timeouts
+     * Synchronise tous les favoris ; l'enrichissement qui suit est lancé par SyncCoordinator
      */
-    public Mono<Integer> syncAllFavorites() {
+    public Mono<SyncResult> syncAllFavorites(SyncJob job) {
         log.info("=== SYNCHRONISATION DES FAVORIS ===");
-        return fetchAllFavoritesPages()
-                .map(favorites -> {
-                    int savedCount = saveFavorites(favorites);
-                    log.info("Synchronisation: {} nouveaux favoris sur {} total", savedCount, favorites.size());
-
-                    // Lancer l'enrichissement en arrière-plan (non-bloquant)
-                    enrichAllUntilComplete()
-                            .subscribe(
-                                    null,
-                                    error -> log.error("Erreur enrichissement background: {}", error.getMessage()),
-                                    () -> log.info("✓ Enrichissement background terminé")
-                            );
-
-                    return savedCount;
+        return fetchAllFavoritesPages(job)
+                .publishOn(jdbcScheduler)
+                .map(fetched -> {
+                    List<Favorite> favorites = fetched.favorites;
+                    progress(job, "save", 0, favorites.size());
+                    SyncResult result = favoriteSyncService.applySync(favorites);
+                    result.setResumedFromPage(fetched.resumedFromPage);
+                    checkpointService.discard(fetched.runId);
+                    log.info("Synchronisation: {} nouveaux, {} modifiés sur {} total",
+                            result.getNewCount(), result.getChangedCount(), favorites.size());
+                    progress(job, "save", favorites.size(), favorites.size());
+                    eventService.syncProgress("done", favorites.size(), favorites.size());
+                    return result;
                 });
     }
 
-    private int saveFavorites(List<Favorite> favorites) {
-        int savedCount = 0;
-        for (int i = 0; i < favorites.size(); i++) {
-            Favorite favorite = favorites.get(i);
-            try {
-                // Assigner l'ordre d'ajout (0 = le plus récent)
-                favorite.setFavoriteOrder(i);
-
-                var existing = favoriteService.getFavoritesByVintedId(favorite.getVintedId());
-                if (existing.isEmpty()) {
-                    favoriteService.saveFavorite(favorite);
-                    savedCount++;
-                } else {
-                    Favorite existingFavorite = existing.get(0);
-                    updateExistingFavorite(existingFavorite, favorite);
-                    // Mettre à jour aussi l'ordre pour les favoris existants
-                    existingFavorite.setFavoriteOrder(i);
-                    favoriteService.saveFavorite(existingFavorite);
-                }
-            } catch (Exception e) {
-                log.error("Erreur sauvegarde favori: {}", e.getMessage());
-            }
-        }
-        return savedCount;
-    }
-
     // ==================== ENRICHISSEMENT EN BOUCLE ====================
 
     /**
-     * Enrichit TOUS les favoris incomplets en boucle jusqu'à complétion
+     * Enrichit les favoris incomplets et les demandes de l'interface, par priorité, jusqu'à vider la file ;
+     * émet le nombre de favoris enrichis
      */
-    public Mono<Void> enrichAllUntilComplete() {
-        List<Favorite> toEnrich = getFavoritesNeedingEnrichment();
+    public Mono<Integer> enrichAllUntilComplete(SyncJob job) {
+        return Mono.defer(() -> enrichAll(job)).subscribeOn(jdbcScheduler);
+    }
+
+    private Mono<Integer> enrichAll(SyncJob job) {
+        enrichmentQueue.offerBackfill(getFavoritesNeedingEnrichment());
+        job.progress("enrich", 0, enrichmentQueue.size());
 
-        if (toEnrich.isEmpty()) {
+        if (enrichmentQueue.isEmpty()) {
             log.info("✓ Tous les favoris sont complets");
-            return Mono.empty();
+            return Mono.just(0);
         }
 
-        log.info("=== ENRICHISSEMENT: {} favoris incomplets ===", toEnrich.size());
-        return enrichBatchRecursively(toEnrich, 0);
+        log.info("=== ENRICHISSEMENT: {} favoris en file ===", enrichmentQueue.size());
+        AtomicInteger processed = new AtomicInteger(0);
+        AtomicInteger enriched = new AtomicInteger(0);
+        AtomicInteger sinceBreak = new AtomicInteger(0);
+        return enrichNextFavorite(job, processed, enriched, sinceBreak)
+                // Résultats encore en tampon écrits avant de déclarer l'enrichissement terminé
+                .then(Mono.fromRunnable(writeBuffer::flush).subscribeOn(jdbcScheduler))
+                .then(Mono.fromSupplier(enriched::get));
     }
 
-    private Mono<Void> enrichBatchRecursively(List<Favorite> allToEnrich, int startIndex) {
-        if (startIndex >= allToEnrich.size()) {
-            log.info("✓ ENRICHISSEMENT TERMINÉ");
+    /**
+     * Traite la tâche la plus prioritaire de la file jusqu'à ce qu'elle soit vide : les demandes de
+     * l'interface et les favoris des syncs arrivées entre-temps passent devant le reste du rattrapage.
+     */
+    private Mono<Void> enrichNextFavorite(SyncJob job, AtomicInteger processed, AtomicInteger enriched,
+                                          AtomicInteger sinceBreak) {
+        if (job.isStopRequested()) {
+            log.info("Enrichissement arrêté avec l'application ({} enrichis, {} encore en file)",
+                    enriched.get(), enrichmentQueue.size());
             return Mono.empty();
         }
 
-        int endIndex = Math.min(startIndex + maxEnrichmentBatch, allToEnrich.size());
-        List<Favorite> batch = allToEnrich.subList(startIndex, endIndex);
-
-        log.info("Batch {}-{}/{}", startIndex + 1, endIndex, allToEnrich.size());
-
-        AtomicInteger enrichedCount = new AtomicInteger(0);
-        AtomicInteger index = new AtomicInteger(0);
-
-        return enrichNextFavorite(batch, index, enrichedCount)
-                .then(Mono.defer(() -> {
-                    log.info("Batch terminé: {}/{} enrichis", enrichedCount.get(), batch.size());
-
-                    if (endIndex < allToEnrich.size()) {
-                        log.info("Pause 5s avant prochain batch...");
-                        return Mono.delay(Duration.ofSeconds(5))
-                                .then(enrichBatchRecursively(allToEnrich, endIndex));
-                    }
-                    return Mono.empty();
-                }));
-    }
+        // Pause entre deux séries du rattrapage ; une demande de l'interface passe sans attendre
+        if (sinceBreak.get() >= maxEnrichmentBatch && !enrichmentQueue.hasInteractive()) {
+            sinceBreak.set(0);
+            log.info("Batch terminé ({} enrichis sur {}), pause 5s avant la suite...", enriched.get(), processed.get());
+            return job.pause(Duration.ofSeconds(5))
+                    .then(Mono.defer(() -> enrichNextFavorite(job, processed, enriched, sinceBreak)));
+        }
 
-    private Mono<Void> enrichNextFavorite(List<Favorite> favorites, AtomicInteger index, AtomicInteger enrichedCount) {
-        int currentIndex = index.getAndIncrement();
-        if (currentIndex >= favorites.size()) {
+        EnrichmentQueue.Task task = enrichmentQueue.poll();
+        if (task == null) {
+            log.info("✓ ENRICHISSEMENT TERMINÉ");
             return Mono.empty();
         }
-
-        Favorite favorite = favorites.get(currentIndex);
-
-        return Mono.delay(Duration.ofMillis(enrichmentDelayMs))
-                .then(fetchItemDetails(favorite.getVintedId()))
-                .doOnNext(details -> {
-                    if (details.getCategory() != null) favorite.setCategory(details.getCategory());
-                    if (details.getGender() != null) favorite.setGender(details.getGender());
-                    favoriteService.saveFavorite(favorite);
-                    enrichedCount.incrementAndGet();
-                    log.info("Enrichi: {} -> {}, {}", favorite.getTitle(), favorite.getCategory(), favorite.getGender());
+        sinceBreak.incrementAndGet();
+
+        return job.pause(Duration.ofMillis(enrichmentDelayMs))
+                .then(fetchItemDetails(task.getFavorite().getVintedId()))
+                .switchIfEmpty(Mono.error(new IllegalStateException("Page Vinted indisponible")))
+                .publishOn(jdbcScheduler)
+                .doOnNext(page -> {
+                    enrichmentQueue.complete(task, applyItemPage(task.getFavoriteId(), page, task.isInteractive()));
+                    enriched.incrementAndGet();
                 })
                 .onErrorResume(e -> {
-                    log.debug("Erreur enrichissement {}: {}", favorite.getVintedId(), e.getMessage());
+                    log.debug("Erreur enrichissement {}: {}", task.getFavorite().getVintedId(), e.getMessage());
+                    enrichmentQueue.fail(task, e);
                     return Mono.empty();
                 })
-                .then(Mono.defer(() -> enrichNextFavorite(favorites, index, enrichedCount)));
+                .then(Mono.fromRunnable(() -> {
+                    int done = processed.incrementAndGet();
+                    job.progress("enrich", done, done + enrichmentQueue.size());
+                }))
+                .then(Mono.defer(() -> enrichNextFavorite(job, processed, enriched, sinceBreak)));
+    }
+
+    /**
+     * Enregistre ce qu'a donné la page Vinted, sur la version en base du favori : la file peut contenir
+     * une copie antérieure à la dernière sync. L'écriture passe par le tampon, groupée avec les suivantes,
+     * sauf pour une demande de l'interface (immediate).
+     */
+    private Favorite applyItemPage(Long favoriteId, ItemPage page, boolean immediate) {
+        Favorite favorite = favoriteService.getFavoriteById(favoriteId)
+                .orElseThrow(() -> new IllegalStateException("Favori " + favoriteId + " introuvable"));
+
+        boolean changed = false;
+        if (page.getCategory() != null && !page.getCategory().equals(favorite.getCategory())) {
+            favorite.setCategory(page.getCategory());
+            changed = true;
+        }
+        if (page.getGender() != null && !page.getGender().equals(favorite.getGender())) {
+            favorite.setGender(page.getGender());
+            changed = true;
+        }
+        // La ligne favorites n'est réécrite que si genre ou catégorie changent
+        writeBuffer.add(favorite, changed, page.getDetails(), immediate);
+        log.info("Enrichi: {} -> {}, {}", favorite.getTitle(), favorite.getCategory(), favorite.getGender());
+        return favorite;
     }
 
     public List<Favorite> getFavoritesNeedingEnrichment() {
+        Set<Long> withDetails = new HashSet<>(detailsService.getEnrichedFavoriteIds());
+        withDetails.addAll(writeBuffer.getPendingIds());
         return favoriteService.getAllFavorites().stream()
-                .filter(f -> f.getCategory() == null || f.getGender() == null)
+                .filter(f -> f.getCategory() == null || f.getGender() == null || !withDetails.contains(f.getId()))
                 .toList();
     }
 
@@ -192,6 +239,11 @@ public class VintedApiService {
     }
 
     private Mono<List<Favorite>> fetchFavoritesInternal(int page, int perPage, boolean isRetry) {
+        // Lecture des cookies en base : la requête est préparée sur jdbcScheduler
+        return Mono.defer(() -> requestFavorites(page, perPage, isRetry)).subscribeOn(jdbcScheduler);
+    }
+
+    private Mono<List<Favorite>> requestFavorites(int page, int perPage, boolean isRetry) {
         String cookieHeader = cookieService.buildCookieHeader();
 
         if (cookieHeader.isEmpty()) {
@@ -221,12 +273,16 @@ public class VintedApiService {
 
     // ==================== FETCH ITEM DETAILS (HTML SCRAPING) ====================
 
-    public Mono<Favorite> fetchItemDetails(String itemId) {
+    public Mono<ItemPage> fetchItemDetails(String itemId) {
         return authService.ensureValidToken()
                 .flatMap(valid -> fetchItemDetailsFromHtml(itemId));
     }
 
-    private Mono<Favorite> fetchItemDetailsFromHtml(String itemId) {
+    private Mono<ItemPage> fetchItemDetailsFromHtml(String itemId) {
+        return Mono.defer(() -> requestItemPage(itemId)).subscribeOn(jdbcScheduler);
+    }
+
+    private Mono<ItemPage> requestItemPage(String itemId) {
         String cookieHeader = cookieService.buildCookieHeader();
         String url = baseUrl + "/items/" + itemId;
 
@@ -255,21 +311,49 @@ public class VintedApiService {
                 .onErrorResume(e -> Mono.empty());
     }
 
-    // ==================== HTML PARSING ====================
+    // ==================== STATUT VENDU (SONDE) ====================
 
-    private Mono<Favorite> parseItemFromHtml(String html, String itemId) {
-        try {
-            Favorite favorite = new Favorite();
-            favorite.setVintedId(itemId);
+    /**
+     * Statut is_closed d'un article, lu sur l'API JSON : quelques Ko contre plusieurs centaines pour la page HTML.
+     * Vide si la réponse ne le contient pas ; les erreurs HTTP (404, 429, session expirée) sont propagées.
+     */
+    public Mono<Boolean> fetchItemClosed(String itemId) {
+        return authService.ensureValidToken()
+                .flatMap(valid -> Mono.defer(() -> requestItemStatus(itemId)).subscribeOn(jdbcScheduler));
+    }
 
-            String gender = extractGenderFromBreadcrumb(html);
-            String category = extractCategoryFromBreadcrumb(html);
+    private Mono<Boolean> requestItemStatus(String itemId) {
+        String cookieHeader = cookieService.buildCookieHeader();
+        if (cookieHeader.isEmpty()) {
+            return Mono.error(new RuntimeException("Cookies non configurés"));
+        }
 
-            if (gender != null) favorite.setGender(gender);
-            if (category != null) favorite.setCategory(category);
+        return buildRequest(baseUrl + "/api/v2/items/" + itemId, cookieHeader)
+                .exchangeToMono(this::handleResponse)
+                .flatMap(body -> {
+                    try {
+                        JsonNode closed = objectMapper.readTree(body).path("item").path("is_closed");
+                        return closed.isBoolean() ? Mono.just(closed.booleanValue()) : Mono.<Boolean>empty();
+                    } catch (Exception e) {
+                        log.debug("Réponse illisible pour l'article {}: {}", itemId, e.getMessage());
+                        return Mono.<Boolean>empty();
+                    }
+                });
+    }
 
-            if (favorite.getGender() != null || favorite.getCategory() != null) {
-                return Mono.just(favorite);
+    // ==================== HTML PARSING ====================
+
+    private Mono<ItemPage> parseItemFromHtml(String html, String itemId) {
+        try {
+            ItemPage page = new ItemPage();
+            page.setGender(extractGenderFromBreadcrumb(html));
+            page.setCategory(extractCategoryFromBreadcrumb(html));
+            extractItemDetails(html, itemId, page.getDetails());
+
+            FavoriteDetails details = page.getDetails();
+            if (page.getGender() != null || page.getCategory() != null
+                    || details.getDescription() != null || !details.getPhotoUrls().isEmpty()) {
+                return Mono.just(page);
             }
             return Mono.empty();
         } catch (Exception e) {
@@ -277,6 +361,122 @@ public class VintedApiService {
         }
     }
 
+    private static final Pattern DESCRIPTION = Pattern.compile("\"description\":\"((?:[^\"\\\\]++|\\\\.)*+)\"");
+    private static final Pattern FULL_SIZE_URL = Pattern.compile("\"full_size_url\":\"((?:[^\"\\\\]++|\\\\.)++)\"");
+    private static final Pattern FAVOURITE_COUNT = Pattern.compile("\"favourite_count\":(\\d+)");
+    private static final Pattern VIEW_COUNT = Pattern.compile("\"view_count\":(\\d+)");
+    private static final Pattern FEEDBACK_REPUTATION = Pattern.compile("\"feedback_reputation\":([0-9.]+)");
+    private static final Pattern FEEDBACK_COUNT = Pattern.compile("\"feedback_count\":(\\d+)");
+    private static final Pattern OG_DESCRIPTION = Pattern.compile("<meta[^>]+property=\"og:description\"[^>]+content=\"([^\"]*)\"");
+    private static final Pattern OG_IMAGE = Pattern.compile("<meta[^>]+property=\"og:image\"[^>]+content=\"([^\"]*)\"");
+
+    /**
+     * Lit description, photos, compteurs et note du vendeur dans le JSON embarqué de la page.
+     * Ce JSON est parfois lui-même échappé dans une chaîne JS : on cherche alors dans sa version déséchappée.
+     * La recherche démarre à l'objet de l'article ("id":itemId) pour ne pas lire les articles suggérés.
+     */
+    private void extractItemDetails(String html, String itemId, FavoriteDetails details) {
+        String json = html.contains("\\\"id\\\":") ? unescapeJsString(html) : html;
+        int itemStart = json.indexOf("\"id\":" + itemId);
+        String itemJson = itemStart >= 0 ? json.substring(itemStart) : json;
+
+        String description = firstMatch(DESCRIPTION, itemJson);
+        if (description != null) {
+            details.setDescription(decodeJsonString(description));
+        } else {
+            String og = firstMatch(OG_DESCRIPTION, html);
+            if (og != null) details.setDescription(HtmlUtils.htmlUnescape(og));
+        }
+
+        Set<String> photos = new LinkedHashSet<>();
+        Matcher photoMatcher = FULL_SIZE_URL.matcher(jsonArray(itemJson, "\"photos\":["));
+        while (photoMatcher.find()) {
+            String url = decodeJsonString(photoMatcher.group(1));
+            if (url != null) photos.add(url);
+        }
+        if (photos.isEmpty()) {
+            String og = firstMatch(OG_IMAGE, html);
+            if (og != null) photos.add(HtmlUtils.htmlUnescape(og));
+        }
+        details.setPhotoUrls(new ArrayList<>(photos));
+
+        details.setFavouriteCount(parseInteger(firstMatch(FAVOURITE_COUNT, itemJson)));
+        details.setViewCount(parseInteger(firstMatch(VIEW_COUNT, itemJson)));
+        details.setSellerReviewCount(parseInteger(firstMatch(FEEDBACK_COUNT, itemJson)));
+
+        // Vinted expose une réputation entre 0 et 1, affichée en étoiles sur 5
+        String reputation = firstMatch(FEEDBACK_REPUTATION, itemJson);
+        if (reputation != null) {
+            try {
+                details.setSellerRating(Math.round(Double.parseDouble(reputation) * 50) / 10.0);
+            } catch (NumberFormatException ignored) {
+                // note absente
+            }
+        }
+    }
+
+    /**
+     * Retire un niveau d'échappement JS (\" et \\), en laissant les autres séquences au JSON
+     */
+    private String unescapeJsString(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length() && (text.charAt(i + 1) == '"' || text.charAt(i + 1) == '\\')) {
+                out.append(text.charAt(++i));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Contenu du tableau JSON qui suit la clé donnée (crochets équilibrés, chaînes ignorées), vide si absent
+     */
+    private String jsonArray(String json, String keyWithBracket) {
+        int start = json.indexOf(keyWithBracket);
+        if (start < 0) return "";
+        int depth = 0;
+        boolean inString = false;
+        for (int i = start + keyWithBracket.length() - 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (c == '\\') i++;
+                else if (c == '"') inString = false;
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return json.substring(start, i + 1);
+            }
+        }
+        return "";
+    }
+
+    private String firstMatch(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private Integer parseInteger(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String decodeJsonString(String raw) {
+        try {
+            return objectMapper.readValue("\"" + raw + "\"", String.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private String extractGenderFromBreadcrumb(String html) {
         String searchArea = html.substring(0, Math.min(html.length(), 100000)).toLowerCase();
 
@@ -358,13 +558,17 @@ public class VintedApiService {
     }
 
     private Mono<String> handleResponse(ClientResponse response) {
-        response.headers().header(HttpHeaders.SET_COOKIE).forEach(cookieService::updateCookiesFromResponse);
+        // Cookies renvoyés par Vinted enregistrés sur jdbcScheduler avant de lire le corps
+        List<String> setCookies = response.headers().header(HttpHeaders.SET_COOKIE);
+        Mono<Void> saveCookies = setCookies.isEmpty() ? Mono.empty()
+                : Mono.<Void>fromRunnable(() -> setCookies.forEach(cookieService::updateCookiesFromResponse))
+                        .subscribeOn(jdbcScheduler);
 
         if (response.statusCode().is2xxSuccessful()) {
-            return response.bodyToMono(String.class);
+            return saveCookies.then(response.bodyToMono(String.class));
         } else if (response.statusCode().value() == 401 || response.statusCode().value() == 403) {
-            return response.bodyToMono(String.class)
-                    .defaultIfEmpty("")
+            return saveCookies.then(response.bodyToMono(String.class).defaultIfEmpty(""))
+                    .publishOn(jdbcScheduler)
                     .flatMap(body -> {
                         log.error("Session expirée ({}) - Réponse: {}", response.statusCode().value(),
                                 body.length() > 500 ? body.substring(0, 500) + "..." : body);
@@ -374,8 +578,8 @@ public class VintedApiService {
                         return Mono.error(new RuntimeException("Session expirée"));
                     });
         } else {
-            return response.bodyToMono(String.class)
-                    .flatMap(body -> Mono.error(new RuntimeException("Erreur API: " + response.statusCode())));
+            // WebClientResponseException : le statut permet de distinguer les erreurs à réessayer
+            return saveCookies.then(response.createException()).flatMap(Mono::error);
         }
     }
 
@@ -448,43 +652,181 @@ public class VintedApiService {
         return favorite;
     }
 
-    private void updateExistingFavorite(Favorite existing, Favorite updated) {
-        existing.setPrice(updated.getPrice());
-        existing.setSold(updated.getSold());
-        existing.setTitle(updated.getTitle());
-        existing.setImageUrl(updated.getImageUrl());
-        existing.setCondition(updated.getCondition());
-
-        if (updated.getCategory() != null && existing.getCategory() == null) existing.setCategory(updated.getCategory());
-        if (updated.getGender() != null && existing.getGender() == null) existing.setGender(updated.getGender());
-        if (updated.getBrand() != null && existing.getBrand() == null) existing.setBrand(updated.getBrand());
-        if (updated.getSize() != null && existing.getSize() == null) existing.setSize(updated.getSize());
-        if (updated.getSellerName() != null && existing.getSellerName() == null) existing.setSellerName(updated.getSellerName());
-    }
-
     private String getTextValue(JsonNode node, String field) {
         JsonNode fieldNode = node.path(field);
         if (fieldNode.isMissingNode() || fieldNode.isNull()) return null;
         return fieldNode.asText();
     }
 
-    private Mono<List<Favorite>> fetchAllFavoritesPages() {
+    /**
+     * Télécharge toutes les pages en enregistrant un checkpoint après chacune : une sync interrompue
+     * (redémarrage, session expirée, page toujours en erreur) reprend après la dernière page enregistrée.
+     */
+    private Mono<FetchedFavorites> fetchAllFavoritesPages(SyncJob job) {
+        return Mono.fromCallable(() -> checkpointService.findResumable(favoritesPerPage))
+                .subscribeOn(jdbcScheduler)
+                .flatMap(checkpoint -> checkpoint
+                        .map(cp -> resumeFromCheckpoint(cp, job))
+                        .orElseGet(() -> startNewRun(job)));
+    }
+
+    private Mono<FetchedFavorites> startNewRun(SyncJob job) {
         log.info("Récupération des favoris ({} par page)...", favoritesPerPage);
-        return fetchFavoritesRecursively(1, favoritesPerPage, new ArrayList<>());
+        String runId = job.getId();
+        return fetchFavoritesRecursively(runId, 1, favoritesPerPage, new ArrayList<>(), job)
+                .map(favorites -> new FetchedFavorites(runId, favorites, 0));
     }
 
-    private Mono<List<Favorite>> fetchFavoritesRecursively(int page, int perPage, List<Favorite> accumulated) {
-        return fetchFavorites(page, perPage)
+    /**
+     * Reprise d'un run. La page 1 est relue pour ajouter en tête les favoris apparus depuis (ceux qui précèdent
+     * le favori de tête enregistré). La liste a pu se décaler depuis : vers le bas avec ces ajouts, vers le haut
+     * quand des favoris des pages déjà lues ont été retirés (la tête de la page suivante serait alors sautée).
+     * La dernière page enregistrée est donc relue pour y retrouver le dernier favori enregistré, et la suivante
+     * s'il y a eu des ajouts ; la reprise continue juste après lui. Introuvable : le run repart de zéro.
+     */
+    private Mono<FetchedFavorites> resumeFromCheckpoint(SyncCheckpoint checkpoint, SyncJob job) {
+        String runId = checkpoint.getRunId();
+        int lastPage = checkpoint.getLastPage();
+        log.info("Reprise de la sync {} après la page {} ({} favoris déjà récupérés)",
+                runId, lastPage, checkpoint.getFetchedCount());
+
+        return fetchPage(1, favoritesPerPage)
+                .publishOn(jdbcScheduler)
+                .flatMap(head -> {
+                    int watermarkIndex = indexOfVintedId(head, checkpoint.getWatermark());
+                    if (watermarkIndex < 0) {
+                        // Plus d'une page de nouveaux favoris, ou favori de tête retiré : repartir de zéro
+                        log.warn("Favori de tête {} absent de la page 1 : checkpoint {} abandonné",
+                                checkpoint.getWatermark(), runId);
+                        checkpointService.discard(runId);
+                        return startNewRun(job);
+                    }
+
+                    List<Favorite> stored = checkpointService.loadFavorites(runId);
+                    List<Favorite> accumulated = new ArrayList<>(head.subList(0, watermarkIndex));
+                    accumulated.addAll(stored);
+                    progress(job, "fetch", accumulated.size(), null);
+                    if (Boolean.TRUE.equals(checkpoint.getFetchComplete())) {
+                        return Mono.just(new FetchedFavorites(runId, accumulated, lastPage));
+                    }
+
+                    String tail = stored.get(stored.size() - 1).getVintedId();
+                    Mono<List<Favorite>> lastPageNow = lastPage == 1
+                            ? Mono.just(head)
+                            : fetchPage(lastPage, favoritesPerPage).publishOn(jdbcScheduler);
+                    return lastPageNow.flatMap(current ->
+                            resumeAfterTail(runId, tail, lastPage, current, watermarkIndex > 0, accumulated, job));
+                });
+    }
+
+    /**
+     * @param current          page relue où chercher le dernier favori enregistré (tail)
+     * @param mayHaveMovedDown vrai si des favoris sont apparus en tête : tail a pu glisser sur la page suivante
+     */
+    private Mono<FetchedFavorites> resumeAfterTail(String runId, String tail, int page, List<Favorite> current,
+                                                   boolean mayHaveMovedDown, List<Favorite> accumulated, SyncJob job) {
+        int tailIndex = indexOfVintedId(current, tail);
+        if (tailIndex < 0 && mayHaveMovedDown && current.size() == favoritesPerPage) {
+            return fetchPage(page + 1, favoritesPerPage)
+                    .publishOn(jdbcScheduler)
+                    .flatMap(next -> resumeAfterTail(runId, tail, page + 1, next, false, accumulated, job));
+        }
+        if (tailIndex < 0) {
+            log.warn("Dernier favori enregistré {} absent de la page {} : checkpoint {} abandonné", tail, page, runId);
+            checkpointService.discard(runId);
+            return startNewRun(job);
+        }
+
+        // Favoris remontés sur la page relue pendant l'interruption : sautés si la reprise partait de la suivante
+        List<Favorite> missed = new ArrayList<>(current.subList(tailIndex + 1, current.size()));
+        boolean complete = current.size() < favoritesPerPage;
+        checkpointService.recordResume(runId, page, missed, complete);
+        accumulated.addAll(missed);
+        progress(job, "fetch", accumulated.size(), null);
+        if (complete) {
+            return Mono.just(new FetchedFavorites(runId, accumulated, page));
+        }
+        return fetchFavoritesRecursively(runId, page + 1, favoritesPerPage, accumulated, job)
+                .map(favorites -> new FetchedFavorites(runId, favorites, page));
+    }
+
+    private Mono<List<Favorite>> fetchFavoritesRecursively(String runId, int page, int perPage,
+                                                           List<Favorite> accumulated, SyncJob job) {
+        return fetchPage(page, perPage)
+                // Checkpoint, publication SSE et lecture des cookies de la page suivante : hors event loop
+                .publishOn(jdbcScheduler)
                 .flatMap(favorites -> {
+                    checkpointService.recordPage(runId, page, perPage, favorites);
                     accumulated.addAll(favorites);
+                    progress(job, "fetch", accumulated.size(), null);
                     if (favorites.size() < perPage) {
                         return Mono.just(accumulated);
                     }
-                    return fetchFavoritesRecursively(page + 1, perPage, accumulated);
+                    if (job.isStopRequested()) {
+                        // La page est dans le checkpoint : le prochain démarrage reprend à la suivante
+                        return Mono.error(new IllegalStateException(
+                                "Sync interrompue par l'arrêt de l'application après la page " + page));
+                    }
+                    return fetchFavoritesRecursively(runId, page + 1, perPage, accumulated, job);
                 });
     }
 
+    /**
+     * Une page en erreur passagère (réseau, 5xx, 429) est réessayée avec un délai exponentiel en partie aléatoire ;
+     * après le dernier essai, l'erreur d'origine interrompt le run, qui reprendra depuis son checkpoint.
+     */
+    private Mono<List<Favorite>> fetchPage(int page, int perPage) {
+        return fetchFavorites(page, perPage)
+                .retryWhen(Retry.backoff(pageRetries, Duration.ofMillis(pageRetryBackoffMs))
+                        .maxBackoff(Duration.ofMillis(pageRetryMaxBackoffMs))
+                        .jitter(0.5)
+                        .filter(VintedApiService::isTransientError)
+                        .doBeforeRetry(signal -> log.warn("Page {} en erreur ({}), essai {}/{}",
+                                page, signal.failure().getMessage(), signal.totalRetries() + 2, pageRetries + 1))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private static boolean isTransientError(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        // Connexion refusée ou coupée, délai dépassé
+        return e instanceof WebClientRequestException
+                || e instanceof PrematureCloseException
+                || e instanceof io.netty.handler.timeout.TimeoutException;
+    }
+
+    private static int indexOfVintedId(List<Favorite> favorites, String vintedId) {
+        for (int i = 0; i < favorites.size(); i++) {
+            if (favorites.get(i).getVintedId() != null && favorites.get(i).getVintedId().equals(vintedId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Avancement de la sync : flux SSE sync-progress et job suivi par /api/vinted/jobs
+     */
+    private void progress(SyncJob job, String stage, int processed, Integer total) {
+        eventService.syncProgress(stage, processed, total);
+        job.progress(stage, processed, total);
+    }
+
     public boolean isSessionValid() {
         return cookieService.hasValidSession();
     }
+
+    private static class FetchedFavorites {
+        private final String runId;
+        private final List<Favorite> favorites;
+        // 0 : run complet, sinon page relue par la reprise pour se raccorder au checkpoint
+        private final int resumedFromPage;
+
+        private FetchedFavorites(String runId, List<Favorite> favorites, int resumedFromPage) {
+            this.runId = runId;
+            this.favorites = favorites;
+            this.resumedFromPage = resumedFromPage;
+        }
+    }
 }
@@ -11,7 +11,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -23,6 +25,7 @@ public class VintedAuthService {
     private final WebClient webClient;
     private final VintedCookieService cookieService;
     private final ObjectMapper objectMapper;
+    private final Scheduler jdbcScheduler;
 
     @Value("${vinted.api.base-url:https://www.vinted.fr}")
     private String baseUrl;
@@ -33,9 +36,14 @@ public class VintedAuthService {
     private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
 
     /**
-     * Rafraîchit le token d'accès en utilisant le refresh token
+     * Rafraîchit le token d'accès en utilisant le refresh token.
+     * Lectures et écritures des cookies sur jdbcScheduler, jamais sur l'event loop.
      */
     public Mono<Boolean> refreshAccessToken() {
+        return Mono.defer(this::refreshAccessTokenInternal).subscribeOn(jdbcScheduler);
+    }
+
+    private Mono<Boolean> refreshAccessTokenInternal() {
         // Éviter les appels concurrents
         if (!refreshInProgress.compareAndSet(false, true)) {
             log.info("Refresh token déjà en cours...");
@@ -75,14 +83,18 @@ public class VintedAuthService {
                         .with("refresh_token", refreshToken.get())
                         .with("client_id", "web"))
                 .exchangeToMono(response -> {
-                    // Capturer les nouveaux cookies de la réponse
-                    response.headers().header(HttpHeaders.SET_COOKIE).forEach(setCookie -> {
-                        log.debug("Cookie reçu lors du refresh: {}", setCookie);
-                        cookieService.updateCookiesFromResponse(setCookie);
-                    });
+                    List<String> setCookies = response.headers().header(HttpHeaders.SET_COOKIE);
+                    Mono<String> responseBody = response.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .publishOn(jdbcScheduler)
+                            .doOnNext(ignored -> setCookies.forEach(setCookie -> {
+                                // Capturer les nouveaux cookies de la réponse
+                                log.debug("Cookie reçu lors du refresh: {}", setCookie);
+                                cookieService.updateCookiesFromResponse(setCookie);
+                            }));
 
                     if (response.statusCode().is2xxSuccessful()) {
-                        return response.bodyToMono(String.class)
+                        return responseBody
                                 .map(body -> {
                                     try {
                                         JsonNode json = objectMapper.readTree(body);
@@ -105,7 +117,7 @@ public class VintedAuthService {
                                 });
                     } else {
                         log.error("Échec du refresh token: {}", response.statusCode());
-                        return response.bodyToMono(String.class)
+                        return responseBody
                                 .doOnNext(body -> log.error("Réponse d'erreur: {}", body))
                                 .map(body -> false);
                     }
@@ -156,10 +168,14 @@ public class VintedAuthService {
      * Assure que le token est valide, le rafraîchit si nécessaire
      */
     public Mono<Boolean> ensureValidToken() {
-        if (isAccessTokenExpired()) {
-            log.info("Token expiré, tentative de refresh...");
-            return refreshAccessToken();
-        }
-        return Mono.just(true);
+        return Mono.fromCallable(this::isAccessTokenExpired)
+                .subscribeOn(jdbcScheduler)
+                .flatMap(expired -> {
+                    if (expired) {
+                        log.info("Token expiré, tentative de refresh...");
+                        return refreshAccessToken();
+                    }
+                    return Mono.just(true);
+                });
     }
 }
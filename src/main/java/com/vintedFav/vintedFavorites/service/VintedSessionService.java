@@ -2,6 +2,7 @@ package com.vintedFav.vintedFavorites.service;
 
 import com.vintedFav.vintedFavorites.model.VintedCredentials;
 import com.vintedFav.vintedFavorites.repository.VintedCredentialsRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
@@ -26,6 +28,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class VintedSessionService {
 
     private final VintedCredentialsRepository credentialsRepository;
+    private final ClusterLockService lockService;
+    private final CacheStatisticsService cacheService;
 
     @Value("${vinted.scripts.path:scripts}")
     private String scriptsPath;
@@ -33,12 +37,24 @@ public class VintedSessionService {
     @Value("${vinted.session.auto-refresh:true}")
     private boolean autoRefreshEnabled;
 
+    // Maximum wait for a Playwright login started by another instance
+    @Value("${vinted.session.refresh-wait:180000}")
+    private long refreshWaitMs;
+
+    // Time given to the Playwright script (and its browser) to exit when the application stops
+    @Value("${vinted.shutdown.process-grace:5000}")
+    private long processGraceMs;
+
     // Simple encryption key - in production, use a proper secret management
     private static final String ENCRYPTION_KEY = "VintedFav2024SecretKey";
 
-    // Flag to prevent multiple concurrent refresh attempts
+    // Flag to prevent multiple concurrent refresh attempts (other instances: "session-refresh" cluster lock)
     private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
 
+    // Running Playwright script, stopped with the application so no orphan node process is left behind
+    private volatile Process playwrightProcess;
+    private volatile boolean shuttingDown;
+
     /**
      * Save Vinted credentials (password is encoded, not plaintext stored)
      */
@@ -117,13 +133,24 @@ public class VintedSessionService {
             return CompletableFuture.completedFuture(false);
         }
 
+        if (shuttingDown) {
+            log.info("Session refresh skipped: application is shutting down");
+            return CompletableFuture.completedFuture(false);
+        }
+
         if (!refreshInProgress.compareAndSet(false, true)) {
             log.info("Session refresh already in progress, skipping...");
             return CompletableFuture.completedFuture(false);
         }
 
         return CompletableFuture.supplyAsync(() -> {
+            Optional<ClusterLockService.ClusterLock> lock = Optional.empty();
             try {
+                lock = lockService.tryLock("session-refresh");
+                if (lock.isEmpty()) {
+                    return awaitRefreshElsewhere();
+                }
+
                 Optional<VintedCredentials> credentialsOpt = getActiveCredentials();
                 if (credentialsOpt.isEmpty()) {
                     log.error("No credentials configured for session refresh");
@@ -153,6 +180,11 @@ public class VintedSessionService {
                 pb.environment().put("API_URL", "http://localhost:8080");
                 pb.redirectErrorStream(true);
                 Process process = pb.start();
+                playwrightProcess = process;
+                if (shuttingDown) {
+                    // Shutdown happened while starting: terminateProcess() did not see this process
+                    terminate(process);
+                }
 
                 // Read output
                 StringBuilder output = new StringBuilder();
@@ -183,11 +215,65 @@ public class VintedSessionService {
                 log.error("Error during session refresh: {}", e.getMessage(), e);
                 return false;
             } finally {
+                playwrightProcess = null;
+                lock.ifPresent(ClusterLockService.ClusterLock::close);
                 refreshInProgress.set(false);
             }
         });
     }
 
+    /**
+     * Playwright login already running on another instance: wait for its lock to be released,
+     * then reload the cookies it saved to the database
+     */
+    private boolean awaitRefreshElsewhere() throws InterruptedException {
+        log.info("Session refresh in progress on another instance, waiting...");
+        long deadline = System.currentTimeMillis() + refreshWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(2000);
+            Optional<ClusterLockService.ClusterLock> lock = lockService.tryLock("session-refresh");
+            if (lock.isPresent()) {
+                lock.get().close();
+                cacheService.evictVintedSession();
+                return true;
+            }
+        }
+        log.warn("Session refresh on the other instance still running after {} s", refreshWaitMs / 1000);
+        return false;
+    }
+
+    /**
+     * Application shutdown: the running Playwright script (node and the browser it started)
+     * is asked to stop first, then killed if it has not exited after process-grace
+     */
+    @PreDestroy
+    public void terminateProcess() {
+        shuttingDown = true;
+        Process process = playwrightProcess;
+        if (process != null) {
+            terminate(process);
+        }
+    }
+
+    private void terminate(Process process) {
+        if (!process.isAlive()) {
+            return;
+        }
+        log.info("Stopping Playwright script (pid {})", process.pid());
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        try {
+            if (process.waitFor(processGraceMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Playwright script still running after {} ms, forcing shutdown", processGraceMs);
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
     /**
      * Check if a refresh is currently in progress
      */
@@ -0,0 +1,54 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POST d'un tableau JSON d'événements vers vinted.outbox.webhook.url.
+ * Un même lot peut être renvoyé après une erreur : le destinataire dédoublonne sur l'id.
+ */
+@Component
+@Slf4j
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final WebClient webClient;
+    private final String url;
+    private final Duration timeout;
+
+    public WebhookOutboxSink(WebClient.Builder builder,
+                             @Value("${vinted.outbox.webhook.url:}") String url,
+                             @Value("${vinted.outbox.webhook.timeout:10000}") long timeoutMillis) {
+        this.webClient = builder.build();
+        this.url = url;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return url != null && !url.isBlank();
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(events)
+                .retrieve()
+                .toBodilessEntity()
+                .block(timeout);
+        log.debug("Webhook outbox: {} événements livrés à {}", events.size(), url);
+    }
+}
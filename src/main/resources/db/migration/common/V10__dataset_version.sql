@@ -0,0 +1,8 @@
+-- Version du jeu de favoris partagée par les instances : chacune la relit régulièrement et vide son cache
+-- de second niveau quand une autre l'a incrémentée
+CREATE TABLE IF NOT EXISTS dataset_version (
+    name    VARCHAR(64) PRIMARY KEY,
+    version BIGINT      NOT NULL
+);
+
+INSERT INTO dataset_version (name, version) VALUES ('favorites', 0);
@@ -0,0 +1,12 @@
+-- Détails des favoris archivés : favorite_details est supprimée avec la ligne de favorites (ON DELETE CASCADE),
+-- FavoriteArchiveService les recopie ici pour qu'un favori redevenu disponible les retrouve sans nouvel enrichissement
+CREATE TABLE IF NOT EXISTS favorite_details_archive (
+    favorite_id         BIGINT PRIMARY KEY REFERENCES favorites_archive (id) ON DELETE CASCADE,
+    description         TEXT,
+    photo_urls          TEXT,
+    favourite_count     INTEGER,
+    view_count          INTEGER,
+    seller_rating       DOUBLE PRECISION,
+    seller_review_count INTEGER,
+    fetched_at          TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Version des règles d'alerte partagée par les instances : incrémentée à chaque modification, relue au début
+-- de chaque sync pour reconstruire l'index des règles construit par une instance avant la modification
+INSERT INTO dataset_version (name, version) VALUES ('alert_rules', 0);
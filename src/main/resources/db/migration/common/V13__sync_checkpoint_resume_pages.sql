@@ -0,0 +1,4 @@
+-- Les favoris relus par une reprise sont enregistrés comme une page à part, sous le numéro de la page Vinted
+-- où ils ont été lus : ce numéro peut être celui d'une page déjà enregistrée (ordre de lecture : numéro puis id)
+ALTER TABLE sync_checkpoint_pages DROP CONSTRAINT uk_sync_checkpoint_pages;
+CREATE INDEX IF NOT EXISTS idx_sync_checkpoint_pages_run ON sync_checkpoint_pages (run_id, page_number, id);
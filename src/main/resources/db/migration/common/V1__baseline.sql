@@ -0,0 +1,46 @@
+-- Schéma tel que créé jusqu'ici par hibernate.ddl-auto=update.
+-- Les bases existantes sont marquées en version 1 (baseline-on-migrate) et ne rejouent pas ce script.
+
+CREATE TABLE IF NOT EXISTS favorites (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    vinted_id      VARCHAR(255) UNIQUE,
+    title          VARCHAR(255) NOT NULL,
+    brand          VARCHAR(255),
+    category       VARCHAR(255),
+    gender         VARCHAR(255),
+    price          DOUBLE PRECISION,
+    image_url      VARCHAR(1000),
+    product_url    VARCHAR(1000),
+    listed_date    TIMESTAMP(6),
+    sold           BOOLEAN,
+    seller_name    VARCHAR(255),
+    size           VARCHAR(255),
+    condition      VARCHAR(255),
+    favorite_order INTEGER,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS vinted_cookies (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cookie_name  VARCHAR(255) NOT NULL,
+    cookie_value TEXT,
+    domain       VARCHAR(255),
+    path         VARCHAR(255),
+    expires_at   TIMESTAMP(6),
+    is_active    BOOLEAN,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS vinted_credentials (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email              VARCHAR(255) NOT NULL,
+    password_encrypted VARCHAR(255) NOT NULL,
+    user_id            VARCHAR(255),
+    is_active          BOOLEAN,
+    last_login         TIMESTAMP(6),
+    last_refresh       TIMESTAMP(6),
+    created_at         TIMESTAMP(6),
+    updated_at         TIMESTAMP(6)
+);
@@ -0,0 +1,3 @@
+-- Empreinte des champs Vinted modifiables : la sync compare avant d'écrire.
+-- NULL pour les lignes existantes, remplie à leur prochaine sync.
+ALTER TABLE favorites ADD COLUMN IF NOT EXISTS content_hash BIGINT;
@@ -0,0 +1,16 @@
+-- Outbox transactionnelle : écrite dans la même transaction que la sync, puis livrée par OutboxDispatcher.
+CREATE TABLE IF NOT EXISTS favorite_outbox (
+    id          BIGSERIAL PRIMARY KEY,
+    event_type  VARCHAR(64)  NOT NULL,
+    favorite_id BIGINT,
+    vinted_id   VARCHAR(255),
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL
+);
+
+-- Position de chaque sink dans l'outbox : dernier événement livré avec succès
+CREATE TABLE IF NOT EXISTS outbox_cursors (
+    sink          VARCHAR(64)  PRIMARY KEY,
+    last_event_id BIGINT       NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,34 @@
+-- Séparation chaud/froid : les favoris vendus depuis plus de vinted.archive.sold-after-days jours
+-- quittent favorites pour favorites_archive (FavoriteArchiveService), en gardant leur id.
+
+ALTER TABLE favorites ADD COLUMN IF NOT EXISTS sold_at TIMESTAMP(6);
+
+-- Date de vente inconnue pour les lignes existantes : la dernière modification est la meilleure approximation
+UPDATE favorites SET sold_at = COALESCE(updated_at, created_at, CURRENT_TIMESTAMP)
+WHERE sold = TRUE AND sold_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_favorites_sold_at ON favorites (sold, sold_at);
+
+CREATE TABLE IF NOT EXISTS favorites_archive (
+    id             BIGINT       PRIMARY KEY,
+    vinted_id      VARCHAR(255) UNIQUE,
+    title          VARCHAR(255) NOT NULL,
+    brand          VARCHAR(255),
+    category       VARCHAR(255),
+    gender         VARCHAR(255),
+    price          DOUBLE PRECISION,
+    image_url      VARCHAR(1000),
+    product_url    VARCHAR(1000),
+    listed_date    TIMESTAMP(6),
+    sold           BOOLEAN,
+    seller_name    VARCHAR(255),
+    size           VARCHAR(255),
+    condition      VARCHAR(255),
+    favorite_order INTEGER,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    sold_at        TIMESTAMP(6),
+    archived_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_archive_favorite_order ON favorites_archive (favorite_order);
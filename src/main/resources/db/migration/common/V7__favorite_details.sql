@@ -0,0 +1,12 @@
+-- Données détaillées d'un favori tirées de sa page Vinted par l'enrichissement.
+-- Table séparée (1-1, même id) pour garder étroites les lignes de favorites lues par la liste et les filtres.
+CREATE TABLE IF NOT EXISTS favorite_details (
+    favorite_id         BIGINT PRIMARY KEY REFERENCES favorites (id) ON DELETE CASCADE,
+    description         TEXT,
+    photo_urls          TEXT,
+    favourite_count     INTEGER,
+    view_count          INTEGER,
+    seller_rating       DOUBLE PRECISION,
+    seller_review_count INTEGER,
+    fetched_at          TIMESTAMP(6) NOT NULL
+);
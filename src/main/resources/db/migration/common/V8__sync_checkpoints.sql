@@ -0,0 +1,23 @@
+-- Point de reprise d'une sync complète : les pages déjà téléchargées sont conservées
+-- jusqu'à l'application en base, pour qu'une sync interrompue reprenne là où elle s'est arrêtée.
+CREATE TABLE IF NOT EXISTS sync_checkpoints (
+    run_id         VARCHAR(36)  PRIMARY KEY,
+    per_page       INTEGER      NOT NULL,
+    last_page      INTEGER      NOT NULL,
+    fetched_count  INTEGER      NOT NULL,
+    -- vinted_id du favori le plus récent (tête de la page 1) au début du run
+    watermark      VARCHAR(255),
+    fetch_complete BOOLEAN      NOT NULL,
+    started_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL
+);
+
+-- Favoris d'une page, sérialisés en JSON dans l'ordre Vinted
+CREATE TABLE IF NOT EXISTS sync_checkpoint_pages (
+    id          BIGSERIAL    PRIMARY KEY,
+    run_id      VARCHAR(36)  NOT NULL REFERENCES sync_checkpoints (run_id) ON DELETE CASCADE,
+    page_number INTEGER      NOT NULL,
+    payload     TEXT         NOT NULL,
+    fetched_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_sync_checkpoint_pages UNIQUE (run_id, page_number)
+);
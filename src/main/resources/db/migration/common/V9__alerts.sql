@@ -0,0 +1,29 @@
+-- Règles d'alerte définies par l'utilisateur : filtres optionnels (NULL = toute valeur) et déclencheur
+CREATE TABLE IF NOT EXISTS alert_rules (
+    id               BIGSERIAL PRIMARY KEY,
+    name             VARCHAR(255) NOT NULL,
+    alert_type       VARCHAR(32)  NOT NULL,
+    brand            VARCHAR(255),
+    category         VARCHAR(255),
+    size             VARCHAR(255),
+    max_price        DOUBLE PRECISION,
+    min_drop_percent DOUBLE PRECISION,
+    enabled          BOOLEAN      NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL
+);
+
+-- Alertes déclenchées par la sync. Pas de clé étrangère vers favorites : le favori peut être archivé depuis.
+CREATE TABLE IF NOT EXISTS alerts (
+    id             BIGSERIAL PRIMARY KEY,
+    rule_id        BIGINT       NOT NULL REFERENCES alert_rules (id) ON DELETE CASCADE,
+    alert_type     VARCHAR(32)  NOT NULL,
+    favorite_id    BIGINT,
+    vinted_id      VARCHAR(255),
+    title          VARCHAR(255),
+    price          DOUBLE PRECISION,
+    previous_price DOUBLE PRECISION,
+    fired_at       TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_alerts_fired_at ON alerts (fired_at);
+CREATE INDEX IF NOT EXISTS idx_alerts_rule_id ON alerts (rule_id);
@@ -0,0 +1,14 @@
+-- Variante H2 (profil embedded) : pas d'index sur expression, les filtres IgnoreCase restent des parcours
+-- sur des volumes mono-utilisateur ; le tri par favorite_order et le filtre sold sont indexés comme sous PostgreSQL.
+
+CREATE INDEX IF NOT EXISTS idx_favorites_favorite_order ON favorites (favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_brand ON favorites (brand, favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_gender ON favorites (gender, favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_category ON favorites (category, favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_sold ON favorites (sold, favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_vinted_cookies_cookie_name ON vinted_cookies (cookie_name);
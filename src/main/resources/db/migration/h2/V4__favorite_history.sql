@@ -0,0 +1,15 @@
+-- Variante H2 (profil embedded) de l'historique : même colonnes, sans partitionnement ni BRIN.
+
+CREATE TABLE IF NOT EXISTS favorite_history (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    favorite_id    BIGINT       NOT NULL,
+    recorded_at    TIMESTAMP(6) NOT NULL,
+    price          DOUBLE PRECISION,
+    previous_price DOUBLE PRECISION,
+    sold           BOOLEAN,
+    previous_sold  BOOLEAN
+);
+
+CREATE INDEX IF NOT EXISTS idx_favorite_history_recorded_at ON favorite_history (recorded_at);
+
+CREATE INDEX IF NOT EXISTS idx_favorite_history_favorite ON favorite_history (favorite_id, recorded_at);
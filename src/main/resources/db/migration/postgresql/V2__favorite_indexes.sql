@@ -0,0 +1,15 @@
+-- Index des finders de FavoriteRepository et des filtres de liste.
+-- Les filtres texte comparent upper(colonne) (IgnoreCase) et trient par favorite_order :
+-- un index composite couvre à la fois le filtre et le tri.
+
+CREATE INDEX IF NOT EXISTS idx_favorites_favorite_order ON favorites (favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_brand ON favorites (upper(brand), favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_gender ON favorites (upper(gender), favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_category ON favorites (upper(category), favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_favorites_sold ON favorites (sold, favorite_order);
+
+CREATE INDEX IF NOT EXISTS idx_vinted_cookies_cookie_name ON vinted_cookies (cookie_name);
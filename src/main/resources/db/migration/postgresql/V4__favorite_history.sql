@@ -0,0 +1,39 @@
+-- Historique append-only des changements de prix et de statut.
+-- Partitionné par mois sur recorded_at : les partitions à venir sont créées par FavoriteHistoryService,
+-- la partition DEFAULT ne reçoit que ce qui tomberait hors des mois déjà créés.
+
+CREATE TABLE IF NOT EXISTS favorite_history (
+    id             BIGSERIAL,
+    favorite_id    BIGINT       NOT NULL,
+    recorded_at    TIMESTAMP(6) NOT NULL,
+    price          DOUBLE PRECISION,
+    previous_price DOUBLE PRECISION,
+    sold           BOOLEAN,
+    previous_sold  BOOLEAN,
+    PRIMARY KEY (id, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+CREATE TABLE IF NOT EXISTS favorite_history_default PARTITION OF favorite_history DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', now())::date;
+BEGIN
+    FOR i IN 0..1 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF favorite_history FOR VALUES FROM (%L) TO (%L)',
+            'favorite_history_' || to_char(month_start + make_interval(months => i), 'YYYY_MM'),
+            month_start + make_interval(months => i),
+            month_start + make_interval(months => i + 1));
+    END LOOP;
+END $$;
+
+-- Lignes insérées dans l'ordre chronologique : un BRIN reste minuscule même à des dizaines de millions de lignes
+CREATE INDEX IF NOT EXISTS idx_favorite_history_recorded_at ON favorite_history USING BRIN (recorded_at);
+
+-- Historique d'un favori
+CREATE INDEX IF NOT EXISTS idx_favorite_history_favorite ON favorite_history (favorite_id, recorded_at DESC);
+
+-- "Baisses de prix récentes" : index partiel limité aux seules baisses
+CREATE INDEX IF NOT EXISTS idx_favorite_history_price_drops ON favorite_history (recorded_at DESC)
+    WHERE price < previous_price;
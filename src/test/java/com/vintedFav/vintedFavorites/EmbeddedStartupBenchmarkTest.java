@@ -0,0 +1,46 @@
+package com.vintedFav.vintedFavorites;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Temps de démarrage complet sur le profil embedded (contexte Spring, migrations Flyway, validation Hibernate) :
+ * une première fois sur une base vide, puis sur la même base déjà migrée.
+ * Plafond réglable avec -Dbenchmark.startup.max-ms=...
+ */
+class EmbeddedStartupBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(EmbeddedStartupBenchmarkTest.class);
+
+	private static final long MAX_STARTUP_MILLIS = Long.getLong("benchmark.startup.max-ms", 20000);
+
+	@Test
+	void startsWithoutExternalServices(@TempDir Path dataDir) {
+		long firstStart = startAndStop(dataDir);
+		long restart = startAndStop(dataDir);
+
+		log.info("Démarrage embedded : base vide {} ms, base existante {} ms", firstStart, restart);
+		assertTrue(firstStart < MAX_STARTUP_MILLIS, "Démarrage sur base vide trop lent: " + firstStart + " ms");
+		assertTrue(restart < MAX_STARTUP_MILLIS, "Redémarrage trop lent: " + restart + " ms");
+	}
+
+	private long startAndStop(Path dataDir) {
+		long start = System.nanoTime();
+		try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(VintedFavoritesApplication.class)
+				.profiles("embedded")
+				.run("--VINTED_DATA_DIR=" + dataDir,
+						"--server.port=0",
+						"--vinted.sync.enabled=false",
+						"--vinted.sync.on-startup=false")) {
+			return (System.nanoTime() - start) / 1_000_000;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.vintedFav.vintedFavorites;
+
+import com.zaxxer.hikari.HikariDataSource;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Installée par blockhound-junit-platform au démarrage des tests (ServiceLoader).
+ * Toute requête base commence par une connexion du pool : la marquer bloquante
+ * signale JPA comme JDBC exécutés sur l'event loop ou sur Schedulers.parallel.
+ */
+public class JdbcBlockHoundIntegration implements BlockHoundIntegration {
+
+	@Override
+	public void applyTo(BlockHound.Builder builder) {
+		builder.markAsBlocking(HikariDataSource.class, "getConnection", "()Ljava/sql/Connection;");
+	}
+}
@@ -2,8 +2,14 @@ package com.vintedFav.vintedFavorites;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contextLoads;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"vinted.sync.enabled=false",
+		"vinted.sync.on-startup=false"
+})
+@ActiveProfiles("embedded")
 class VintedFavoritesApplicationTests {
 
 	@Test
@@ -0,0 +1,167 @@
+package com.vintedFav.vintedFavorites.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vintedFav.vintedFavorites.dto.FavoriteFilter;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Régression des plans : chaque requête de FavoriteRepository est exécutée par Hibernate sur un PostgreSQL
+ * embarqué, migré par Flyway et peuplé ; le SQL réellement émis (capturé par un StatementInspector) passe
+ * par EXPLAIN avec les mêmes valeurs et ne doit pas lire une grosse table en Seq Scan.
+ * Les valeurs filtrées sont sélectives, comme celles qu'un utilisateur choisit dans les filtres.
+ * findAllByOrderByFavoriteOrderAsc/Desc rendent toute la table : un Seq Scan y est le plan attendu.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.vintedFav.vintedFavorites.repository.FavoriteQueryPlanTest$CapturedStatements")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FavoriteQueryPlanTest {
+
+	private static final int SEEDED_ROWS = 20000;
+
+	// Au-delà de ce nombre de lignes dans la table, un Seq Scan est une régression
+	private static final int SEQ_SCAN_ROW_THRESHOLD = 1000;
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbc;
+
+	@Autowired
+	private FavoriteRepository favoriteRepository;
+
+	@BeforeAll
+	static void startDatabase() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		DataSource dataSource = postgres.getPostgresDatabase();
+		Flyway.configure()
+				.dataSource(dataSource)
+				.locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+				.load()
+				.migrate();
+
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.update("""
+				INSERT INTO favorites (vinted_id, title, brand, category, gender, price, sold,
+				                       favorite_order, created_at, updated_at)
+				SELECT 'v' || i, 'Article ' || i, 'Brand' || (i % 200), 'Category' || (i % 50),
+				       CASE WHEN i % 50 = 0 THEN 'Enfant' WHEN i % 2 = 0 THEN 'Femme' ELSE 'Homme' END,
+				       (i % 300) + 0.99, i % 20 = 0, i, now(), now()
+				FROM generate_series(1, ?) AS i
+				""", SEEDED_ROWS);
+		jdbc.execute("ANALYZE");
+	}
+
+	@DynamicPropertySource
+	static void embeddedPostgres(DynamicPropertyRegistry registry) {
+		// Lu au chargement du contexte, après @BeforeAll
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "");
+	}
+
+	@AfterAll
+	static void stopDatabase() throws IOException {
+		if (postgres != null) {
+			postgres.close();
+		}
+	}
+
+	/**
+	 * Appel du repository et valeurs qu'il lie, dans l'ordre des paramètres du SQL généré
+	 */
+	static Stream<Arguments> repositoryQueries() {
+		return Stream.of(
+				query("findByVintedId", r -> r.findByVintedId("v4242"), "v4242"),
+				query("findByBrandIgnoreCase", r -> r.findByBrandIgnoreCase("brand42"), "brand42"),
+				query("findByGenderIgnoreCase", r -> r.findByGenderIgnoreCase("enfant"), "enfant"),
+				query("findByCategoryIgnoreCase", r -> r.findByCategoryIgnoreCase("category7"), "category7"),
+				query("findBySold", r -> r.findBySold(true), true),
+				query("findByBrandIgnoreCaseAndGenderIgnoreCase",
+						r -> r.findByBrandIgnoreCaseAndGenderIgnoreCase("brand42", "femme"), "brand42", "femme"),
+				query("findProjected (catégorie)",
+						r -> r.findProjected(new FavoriteFilter(null, null, "category7", null, false),
+								List.of("id", "title", "price"), false), "CATEGORY7"),
+				query("findProjected (vendus)",
+						r -> r.findProjected(new FavoriteFilter(null, null, null, true, false),
+								List.of("id", "title", "price"), false), true)
+		);
+	}
+
+	private static Arguments query(String finder, Consumer<FavoriteRepository> call, Object... parameters) {
+		return Arguments.of(finder, call, parameters);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("repositoryQueries")
+	void queryDoesNotSeqScanLargeTables(String finder, Consumer<FavoriteRepository> call, Object[] parameters)
+			throws IOException {
+		CapturedStatements.SQL.clear();
+		call.accept(favoriteRepository);
+		List<String> statements = List.copyOf(CapturedStatements.SQL);
+		assertThat(statements).as("%s n'a émis aucune requête", finder).isNotEmpty();
+
+		for (String sql : statements) {
+			assertThat(sql.chars().filter(c -> c == '?').count())
+					.as("paramètres liés par %s : %s", finder, sql)
+					.isEqualTo(parameters.length);
+			String planJson = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, parameters);
+			JsonNode plan = new ObjectMapper().readTree(planJson).get(0).get("Plan");
+
+			List<String> seqScans = new ArrayList<>();
+			collectLargeSeqScans(plan, seqScans);
+
+			assertThat(seqScans)
+					.as("%s lit en Seq Scan : %s%nSQL : %s%nPlan : %s", finder, seqScans, sql, planJson)
+					.isEmpty();
+		}
+	}
+
+	/**
+	 * Relève chaque requête SQL préparée par Hibernate, sans la modifier
+	 */
+	public static class CapturedStatements implements StatementInspector {
+		private static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SQL.add(sql);
+			return sql;
+		}
+	}
+
+	private void collectLargeSeqScans(JsonNode node, List<String> seqScans) {
+		if ("Seq Scan".equals(node.path("Node Type").asText())) {
+			String relation = node.path("Relation Name").asText();
+			Double rows = jdbc.queryForObject(
+					"SELECT reltuples::float8 FROM pg_class WHERE relname = ?", Double.class, relation);
+			if (rows != null && rows > SEQ_SCAN_ROW_THRESHOLD) {
+				seqScans.add(relation + " (" + rows.longValue() + " lignes)");
+			}
+		}
+		for (JsonNode child : node.path("Plans")) {
+			collectLargeSeqScans(child, seqScans);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.vintedFav.vintedFavorites.scheduler;
+
+import com.vintedFav.vintedFavorites.dto.SyncScheduleDecision;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.service.SyncResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Intervalle adaptatif : raccourci après une sync active, allongé après une sync calme,
+ * borné par [min, max], délai effectif décalé d'au plus jitter
+ */
+class AdaptiveSyncIntervalTest {
+
+	private static final long MINUTE = 60_000;
+
+	@Test
+	void activeSyncSpeedsUpAndQuietSyncSlowsDown() {
+		AdaptiveSyncInterval interval = interval(30 * MINUTE, 0);
+
+		assertEquals(15 * MINUTE, interval.afterSync(result(1, 0, 0)).toMillis());
+		assertEquals(15 * MINUTE, interval.getIntervalMs());
+		// Vendu ou prix modifié comptent aussi comme activité
+		assertEquals(7.5 * MINUTE, interval.afterSync(result(0, 1, 0)).toMillis());
+		assertEquals(11.25 * MINUTE, interval.afterSync(result(0, 0, 0)).toMillis());
+		assertEquals(11.25 * MINUTE, interval.getIntervalMs());
+
+		SyncScheduleDecision last = interval.getDecisions().get(0);
+		assertEquals(SyncScheduleDecision.Outcome.QUIET, last.getOutcome());
+		assertEquals(7.5 * MINUTE, last.getPreviousIntervalMs());
+		assertEquals(11.25 * MINUTE, last.getIntervalMs());
+	}
+
+	@Test
+	void failureAndSkipKeepTheInterval() {
+		AdaptiveSyncInterval interval = interval(30 * MINUTE, 0);
+
+		assertEquals(30 * MINUTE, interval.afterFailure().toMillis());
+		assertEquals(30 * MINUTE, interval.afterSkip().toMillis());
+		assertEquals(30 * MINUTE, interval.getIntervalMs());
+	}
+
+	@Test
+	void intervalIsClampedToMinAndMax() {
+		AdaptiveSyncInterval interval = interval(30 * MINUTE, 0);
+		for (int i = 0; i < 10; i++) {
+			interval.afterSync(result(0, 0, 1));
+		}
+		assertEquals(5 * MINUTE, interval.getIntervalMs());
+
+		for (int i = 0; i < 10; i++) {
+			interval.afterSync(result(0, 0, 0));
+		}
+		assertEquals(120 * MINUTE, interval.getIntervalMs());
+
+		// Intervalle initial hors bornes ramené dedans au démarrage
+		assertEquals(120 * MINUTE, interval(600 * MINUTE, 0).getIntervalMs());
+		assertEquals(5 * MINUTE, interval(MINUTE, 0).getIntervalMs());
+	}
+
+	@Test
+	void jitterSpreadsTheDelayAroundTheInterval() {
+		AdaptiveSyncInterval interval = interval(30 * MINUTE, 0.1);
+		Set<Long> delays = new HashSet<>();
+		for (int i = 0; i < 200; i++) {
+			long delay = interval.afterSkip().toMillis();
+			assertTrue(delay >= 27 * MINUTE && delay <= 33 * MINUTE, "délai hors jitter: " + delay);
+			delays.add(delay);
+		}
+		assertTrue(delays.size() > 1);
+		// L'intervalle lui-même ne dérive pas
+		assertEquals(30 * MINUTE, interval.getIntervalMs());
+
+		// Jitter borné à 50 %
+		AdaptiveSyncInterval wide = interval(30 * MINUTE, 3);
+		for (int i = 0; i < 200; i++) {
+			long delay = wide.initialDelay().toMillis();
+			assertTrue(delay >= 15 * MINUTE && delay <= 45 * MINUTE, "délai hors jitter: " + delay);
+		}
+	}
+
+	@Test
+	void decisionHistoryIsBounded() {
+		AdaptiveSyncInterval interval = interval(30 * MINUTE, 0);
+		for (int i = 0; i < 60; i++) {
+			interval.afterSkip();
+		}
+		assertEquals(50, interval.getDecisions().size());
+	}
+
+	private static AdaptiveSyncInterval interval(long initialMs, double jitter) {
+		AdaptiveSyncInterval interval = new AdaptiveSyncInterval();
+		ReflectionTestUtils.setField(interval, "initialIntervalMs", initialMs);
+		ReflectionTestUtils.setField(interval, "minIntervalMs", 5 * MINUTE);
+		ReflectionTestUtils.setField(interval, "maxIntervalMs", 120 * MINUTE);
+		ReflectionTestUtils.setField(interval, "speedupFactor", 0.5);
+		ReflectionTestUtils.setField(interval, "slowdownFactor", 1.5);
+		ReflectionTestUtils.setField(interval, "jitter", jitter);
+		ReflectionTestUtils.setField(interval, "decisionHistory", 50);
+		interval.init();
+		return interval;
+	}
+
+	private static SyncResult result(int newCount, int sold, int repriced) {
+		SyncResult result = new SyncResult();
+		result.setNewCount(newCount);
+		result.setRepricedCount(repriced);
+		for (int i = 0; i < sold; i++) {
+			result.getNewlySold().add(new Favorite());
+		}
+		return result;
+	}
+}
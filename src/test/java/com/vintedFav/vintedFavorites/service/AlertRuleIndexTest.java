@@ -0,0 +1,70 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.AlertRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertRuleIndexTest {
+
+	private static final AlertRule ANY = rule(1L, null, null, null);
+	private static final AlertRule NIKE = rule(2L, "Nike", null, null);
+	private static final AlertRule NIKE_SHOES_42 = rule(3L, "Nike", "Baskets", "42");
+	private static final AlertRule SIZE_M = rule(4L, null, null, "M");
+	private static final AlertRule ADIDAS = rule(5L, "Adidas", null, null);
+
+	private final AlertRuleIndex index = new AlertRuleIndex(List.of(ANY, NIKE, NIKE_SHOES_42, SIZE_M, ADIDAS));
+
+	@Test
+	void wildcardRulesMatchEveryFavorite() {
+		assertEquals(Set.of(ANY), index.match("Zara", "Robes", "S"));
+		assertEquals(Set.of(ANY), index.match(null, null, null));
+	}
+
+	@Test
+	void keyedRulesMatchOnlyTheirValues() {
+		assertEquals(Set.of(ANY, NIKE), index.match("Nike", "Robes", "S"));
+		assertEquals(Set.of(ANY, NIKE, NIKE_SHOES_42), index.match("Nike", "Baskets", "42"));
+		assertEquals(Set.of(ANY, NIKE, SIZE_M), index.match("Nike", "Baskets", "M"));
+		assertEquals(Set.of(ANY, ADIDAS), index.match("Adidas", "Baskets", "42"));
+	}
+
+	@Test
+	void keyedRuleNeedsTheAttribute() {
+		// Favori sans marque : seules les règles sans filtre de marque restent candidates
+		assertEquals(Set.of(ANY, SIZE_M), index.match(null, "Baskets", "M"));
+		assertEquals(Set.of(ANY), index.match("  ", "Baskets", "42"));
+	}
+
+	@Test
+	void matchingIgnoresCaseAndSurroundingSpaces() {
+		assertEquals(Set.of(ANY, NIKE, NIKE_SHOES_42), index.match("NIKE", " baskets ", "42"));
+		assertEquals(Set.of(ANY, SIZE_M), index.match("zara", "robes", "m"));
+	}
+
+	@Test
+	void blankRuleFilterIsAWildcard() {
+		AlertRuleIndex blank = new AlertRuleIndex(List.of(rule(6L, " ", "", null)));
+		assertEquals(1, blank.match("Nike", "Robes", "S").size());
+	}
+
+	@Test
+	void emptyIndexMatchesNothing() {
+		assertTrue(new AlertRuleIndex(List.of()).match("Nike", "Baskets", "42").isEmpty());
+	}
+
+	private static AlertRule rule(Long id, String brand, String category, String size) {
+		AlertRule rule = new AlertRule();
+		rule.setId(id);
+		rule.setName("règle " + id);
+		rule.setType(AlertRule.Type.PRICE_DROP);
+		rule.setBrand(brand);
+		rule.setCategory(category);
+		rule.setSize(size);
+		return rule;
+	}
+}
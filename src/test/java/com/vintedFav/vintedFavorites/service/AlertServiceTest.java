@@ -0,0 +1,165 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Alert;
+import com.vintedFav.vintedFavorites.model.AlertRule;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.repository.AlertRepository;
+import com.vintedFav.vintedFavorites.repository.AlertRuleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Déclenchement des alertes pour un favori modifié par la sync : type de règle, seuils de prix et de baisse
+ */
+class AlertServiceTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+	private final AlertRuleRepository ruleRepository = mock(AlertRuleRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final AlertService alertService = new AlertService(ruleRepository, mock(AlertRepository.class), jdbcTemplate);
+
+	@Test
+	void priceDropFiresWithoutThresholds() {
+		rules(priceDrop(1L, null, null));
+		List<Alert> alerts = alertService.evaluate(favorite(80.0, false), 100.0, false, NOW);
+
+		assertEquals(1, alerts.size());
+		assertEquals(1L, alerts.get(0).getRuleId());
+		assertEquals(80.0, alerts.get(0).getPrice());
+		assertEquals(100.0, alerts.get(0).getPreviousPrice());
+	}
+
+	@Test
+	void priceIncreaseOrSamePriceFiresNothing() {
+		rules(priceDrop(1L, null, null), backInStock(2L));
+		assertTrue(alertService.evaluate(favorite(120.0, false), 100.0, false, NOW).isEmpty());
+		assertTrue(alertService.evaluate(favorite(100.0, false), 100.0, false, NOW).isEmpty());
+	}
+
+	@Test
+	void maxPriceBoundsTheNewPrice() {
+		rules(priceDrop(1L, 50.0, null));
+		assertTrue(alertService.evaluate(favorite(60.0, false), 100.0, false, NOW).isEmpty());
+		assertEquals(1, alertService.evaluate(favorite(50.0, false), 100.0, false, NOW).size());
+	}
+
+	@Test
+	void minDropPercentIsComparedToThePreviousPrice() {
+		rules(priceDrop(1L, null, 20.0));
+		assertTrue(alertService.evaluate(favorite(81.0, false), 100.0, false, NOW).isEmpty());
+		assertEquals(1, alertService.evaluate(favorite(80.0, false), 100.0, false, NOW).size());
+	}
+
+	@Test
+	void bothThresholdsMustHold() {
+		rules(priceDrop(1L, 70.0, 20.0));
+		// Baisse de 25 % mais au-dessus du prix maximum
+		assertTrue(alertService.evaluate(favorite(75.0, false), 100.0, false, NOW).isEmpty());
+		// Sous le prix maximum mais baisse de 10 % seulement
+		assertTrue(alertService.evaluate(favorite(63.0, false), 70.0, false, NOW).isEmpty());
+		assertEquals(1, alertService.evaluate(favorite(60.0, false), 100.0, false, NOW).size());
+	}
+
+	@Test
+	void backInStockFiresWhenASoldFavoriteIsAvailableAgain() {
+		rules(priceDrop(1L, null, null), backInStock(2L));
+		List<Alert> alerts = alertService.evaluate(favorite(100.0, false), 100.0, true, NOW);
+
+		assertEquals(1, alerts.size());
+		assertEquals(AlertRule.Type.BACK_IN_STOCK, alerts.get(0).getType());
+		assertTrue(alertService.evaluate(favorite(100.0, true), 100.0, true, NOW).isEmpty());
+	}
+
+	@Test
+	void revivedArchivedFavoriteFiresBackInStockOnly() {
+		// Sync : vendu archivé revenu chez Vinted, réinséré comme nouveau favori (pas de prix précédent)
+		rules(priceDrop(1L, null, null), backInStock(2L));
+		List<Alert> alerts = alertService.evaluate(favorite(40.0, false), null, true, NOW);
+
+		assertEquals(1, alerts.size());
+		assertEquals(2L, alerts.get(0).getRuleId());
+		assertEquals(null, alerts.get(0).getPreviousPrice());
+	}
+
+	@Test
+	void newFavoriteFiresNothing() {
+		rules(priceDrop(1L, null, null), backInStock(2L));
+		assertTrue(alertService.evaluate(favorite(40.0, false), null, null, NOW).isEmpty());
+	}
+
+	@Test
+	void onlyRulesMatchingTheFavoriteAreEvaluated() {
+		AlertRule adidas = priceDrop(1L, null, null);
+		adidas.setBrand("Adidas");
+		AlertRule nike = priceDrop(2L, null, null);
+		nike.setBrand("nike");
+		rules(adidas, nike);
+
+		List<Alert> alerts = alertService.evaluate(favorite(80.0, false), 100.0, false, NOW);
+		assertEquals(1, alerts.size());
+		assertEquals(2L, alerts.get(0).getRuleId());
+	}
+
+	@Test
+	void indexIsRebuiltOnlyWhenTheSharedRulesVersionMoves() {
+		// Version relue à chaque refreshRules : inchangée, puis incrémentée par une autre instance
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L, 1L, 2L);
+		rules(priceDrop(1L, null, null));
+		alertService.refreshRules();
+		assertEquals(1L, alertService.evaluate(favorite(80.0, false), 100.0, false, NOW).get(0).getRuleId());
+
+		rules(priceDrop(2L, null, null));
+		alertService.refreshRules();
+		assertEquals(1L, alertService.evaluate(favorite(80.0, false), 100.0, false, NOW).get(0).getRuleId());
+
+		alertService.refreshRules();
+		assertEquals(2L, alertService.evaluate(favorite(80.0, false), 100.0, false, NOW).get(0).getRuleId());
+	}
+
+	private void rules(AlertRule... rules) {
+		when(ruleRepository.findByEnabledTrue()).thenReturn(List.of(rules));
+	}
+
+	private static AlertRule priceDrop(Long id, Double maxPrice, Double minDropPercent) {
+		AlertRule rule = rule(id, AlertRule.Type.PRICE_DROP);
+		rule.setMaxPrice(maxPrice);
+		rule.setMinDropPercent(minDropPercent);
+		return rule;
+	}
+
+	private static AlertRule backInStock(Long id) {
+		return rule(id, AlertRule.Type.BACK_IN_STOCK);
+	}
+
+	private static AlertRule rule(Long id, AlertRule.Type type) {
+		AlertRule rule = new AlertRule();
+		rule.setId(id);
+		rule.setName("règle " + id);
+		rule.setType(type);
+		return rule;
+	}
+
+	private static Favorite favorite(double price, boolean sold) {
+		Favorite favorite = new Favorite();
+		favorite.setId(10L);
+		favorite.setVintedId("1010");
+		favorite.setTitle("Baskets");
+		favorite.setBrand("Nike");
+		favorite.setCategory("Baskets");
+		favorite.setSize("42");
+		favorite.setPrice(price);
+		favorite.setSold(sold);
+		return favorite;
+	}
+}
@@ -0,0 +1,242 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.VintedFavoritesApplication;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deux instances de l'application sur le même PostgreSQL embarqué : un seul leader, verrous consultatifs
+ * exclusifs entre instances, transactions sous verrou validées l'une après l'autre, ETag et reprise du
+ * leadership quand le leader s'arrête. Pool Hikari principal volontairement petit : les verrous tenus
+ * ne doivent pas lui prendre de connexions.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ClusterCoordinationTest {
+
+	private static final int MAIN_POOL_SIZE = 3;
+	private static final List<String> JOB_LOCKS = List.of("sync", "enrichment", "probe", "session-refresh");
+
+	private static EmbeddedPostgres postgres;
+	private static ConfigurableApplicationContext first;
+	private static ConfigurableApplicationContext second;
+
+	@BeforeAll
+	static void startInstances() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		first = startInstance();
+		second = startInstance();
+	}
+
+	@AfterAll
+	static void stopInstances() throws IOException {
+		for (ConfigurableApplicationContext context : new ConfigurableApplicationContext[] { first, second }) {
+			if (context != null && context.isActive()) {
+				context.close();
+			}
+		}
+		if (postgres != null) {
+			postgres.close();
+		}
+	}
+
+	private static ConfigurableApplicationContext startInstance() {
+		return new SpringApplicationBuilder(VintedFavoritesApplication.class).run(
+				"--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+				"--spring.datasource.username=postgres",
+				"--spring.datasource.password=",
+				"--spring.datasource.hikari.maximum-pool-size=" + MAIN_POOL_SIZE,
+				"--server.port=0",
+				"--vinted.sync.enabled=false",
+				"--vinted.sync.on-startup=false",
+				"--vinted.archive.enabled=false",
+				"--vinted.api.base-url=http://localhost:1",
+				"--vinted.api.user-id=42",
+				"--vinted.api.enrichment-delay=10",
+				"--vinted.cluster.leader-check-interval=300",
+				"--vinted.cluster.version-poll-interval=600000",
+				"--vinted.cluster.lock-retry-interval=300");
+	}
+
+	@Test
+	void lockIsHeldByOneInstanceAtATime() {
+		ClusterLockService firstLocks = first.getBean(ClusterLockService.class);
+		ClusterLockService secondLocks = second.getBean(ClusterLockService.class);
+
+		try (ClusterLockService.ClusterLock lock = firstLocks.tryLock("cluster-test").orElseThrow()) {
+			assertTrue(lock.isHeld());
+			assertTrue(secondLocks.tryLock("cluster-test").isEmpty());
+			assertTrue(firstLocks.tryLock("cluster-test").isEmpty());
+
+			// Un job déjà en cours sur l'autre instance échoue aussitôt au lieu de tourner deux fois
+			Throwable error = assertThrows(RuntimeException.class, () -> secondLocks.withLock("cluster-test",
+					() -> Mono.just(1)).block(Duration.ofSeconds(10)));
+			assertInstanceOf(ClusterLockService.LockBusyException.class, error);
+		}
+
+		Optional<ClusterLockService.ClusterLock> released = secondLocks.tryLock("cluster-test");
+		assertTrue(released.isPresent());
+		released.get().close();
+	}
+
+	@Test
+	void transactionLocksSerializeInstances() throws Exception {
+		TransactionTemplate firstTransactions = first.getBean(TransactionTemplate.class);
+		TransactionTemplate secondTransactions = second.getBean(TransactionTemplate.class);
+		CountDownLatch firstLocked = new CountDownLatch(1);
+		long[] firstCommittedAt = new long[1];
+
+		CompletableFuture<Void> firstTransaction = CompletableFuture.runAsync(() -> firstTransactions.executeWithoutResult(status -> {
+			first.getBean(ClusterLockService.class).lockForTransaction("cluster-test");
+			firstLocked.countDown();
+			sleep(1000);
+			firstCommittedAt[0] = System.nanoTime();
+		}));
+		assertTrue(firstLocked.await(10, TimeUnit.SECONDS));
+
+		long[] secondLockedAt = new long[1];
+		secondTransactions.executeWithoutResult(status -> {
+			second.getBean(ClusterLockService.class).lockForTransaction("cluster-test");
+			secondLockedAt[0] = System.nanoTime();
+		});
+		firstTransaction.get(10, TimeUnit.SECONDS);
+
+		assertTrue(secondLockedAt[0] > firstCommittedAt[0], "verrou obtenu avant la fin de la première transaction");
+	}
+
+	@Test
+	void instancesShareTheDatasetVersionAndETag() {
+		FavoriteDatasetVersion firstVersion = first.getBean(FavoriteDatasetVersion.class);
+		FavoriteDatasetVersion secondVersion = second.getBean(FavoriteDatasetVersion.class);
+		assertEquals(firstVersion.etag(), secondVersion.etag());
+
+		// Lecture suivante sur l'autre instance, sans attendre son passage périodique : nouvel ETag aussitôt
+		String before = secondVersion.etag();
+		firstVersion.increment();
+		assertNotEquals(before, secondVersion.etag());
+		assertEquals(firstVersion.etag(), secondVersion.etag());
+	}
+
+	@Test
+	void onDemandEnrichmentWaitsForTheLockHeldElsewhere() throws Exception {
+		Favorite favorite = new Favorite();
+		favorite.setVintedId("cluster-enrich");
+		favorite.setTitle("Veste");
+		favorite.setProductUrl("http://localhost:1/items/1");
+		favorite = second.getBean(FavoriteRepository.class).save(favorite);
+
+		CompletableFuture<Favorite> result;
+		try (ClusterLockService.ClusterLock lock = first.getBean(ClusterLockService.class).tryLock("enrichment").orElseThrow()) {
+			result = second.getBean(SyncCoordinator.class).enrichNow(favorite);
+			Thread.sleep(1000);
+			// Ni échec ni file vidée : la demande attend le verrou
+			assertFalse(result.isDone());
+		}
+
+		// Verrou libéré : l'instance enrichit la demande (page Vinted injoignable ici)
+		ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+		assertEquals("Page Vinted indisponible", error.getCause().getMessage());
+	}
+
+	@Test
+	void heldLocksDoNotStarveTheMainPool() throws Exception {
+		ClusterLockService locks = first.getBean(ClusterLockService.class);
+		TransactionTemplate transactions = first.getBean(TransactionTemplate.class);
+		FavoriteRepository favorites = first.getBean(FavoriteRepository.class);
+
+		// Tous les jobs en cours à la fois sur cette instance (le verrou leader est déjà tenu par l'une des deux)
+		List<ClusterLockService.ClusterLock> held = new ArrayList<>();
+		try {
+			for (String name : JOB_LOCKS) {
+				held.add(locks.tryLock(name).orElseThrow());
+			}
+
+			// Plus de transactions simultanées que de connexions dans le pool principal, chacune sous verrou de transaction
+			List<CompletableFuture<Void>> writes = new ArrayList<>();
+			for (int i = 0; i < MAIN_POOL_SIZE * 2; i++) {
+				String vintedId = "cluster-pool-" + i;
+				writes.add(CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+					locks.lockForTransaction("outbox");
+					Favorite favorite = new Favorite();
+					favorite.setVintedId(vintedId);
+					favorite.setTitle("Pull");
+					favorites.save(favorite);
+				})));
+			}
+			CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+			held.forEach(lock -> assertTrue(lock.isHeld()));
+		} finally {
+			held.forEach(ClusterLockService.ClusterLock::close);
+		}
+		assertEquals(MAIN_POOL_SIZE * 2, favorites.findAll().stream()
+				.filter(favorite -> favorite.getVintedId().startsWith("cluster-pool-")).count());
+	}
+
+	/**
+	 * En dernier : les deux contextes partagent le fournisseur JCache de la JVM, que la fermeture
+	 * d'une instance ferme aussi pour l'autre (chaque instance a sa JVM en production)
+	 */
+	@Test
+	@Order(Integer.MAX_VALUE)
+	void singleLeaderAndFailover() throws Exception {
+		await("un seul leader", () -> leader(first) != leader(second));
+
+		ConfigurableApplicationContext follower = leader(first) ? second : first;
+		if (follower == second) {
+			first.close();
+		} else {
+			second.close();
+		}
+		await("le suiveur reprend le leadership", () -> leader(follower));
+	}
+
+	private static boolean leader(ConfigurableApplicationContext context) {
+		return context.getBean(LeaderElection.class).isLeader();
+	}
+
+	private static void await(String condition, BooleanSupplier check) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!check.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Délai dépassé : " + condition);
+			}
+			Thread.sleep(100);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * File de l'enrichissement : demandes de l'interface d'abord, dans l'ordre d'arrivée, puis le rattrapage
+ * du plus récent au plus ancien ; un favori n'y figure qu'une fois, qu'il soit en file ou en cours.
+ */
+class EnrichmentQueueTest {
+
+	private final EnrichmentQueue queue = new EnrichmentQueue();
+
+	@Test
+	void interactiveFirstThenBackfillByFavoriteOrder() {
+		queue.offerBackfill(List.of(favorite(1L, 200), favorite(2L, 0), favorite(3L, null), favorite(4L, 100)));
+		queue.submitInteractive(favorite(5L, 300));
+		queue.submitInteractive(favorite(6L, 50));
+
+		assertTrue(queue.hasInteractive());
+		// Demandes dans l'ordre d'arrivée, puis favorite_order croissant, sans ordre en dernier
+		assertEquals(List.of(5L, 6L, 2L, 4L, 1L, 3L), drain());
+		assertFalse(queue.hasInteractive());
+	}
+
+	@Test
+	void backfillSkipsFavoritesAlreadyQueuedOrInFlight() {
+		assertEquals(2, queue.offerBackfill(List.of(favorite(1L, 0), favorite(2L, 100))));
+		EnrichmentQueue.Task running = queue.poll();
+		assertEquals(1L, running.getFavoriteId());
+
+		// 1 en cours, 2 en file : seul 3 est ajouté
+		assertEquals(1, queue.offerBackfill(List.of(favorite(1L, 0), favorite(2L, 100), favorite(3L, 200))));
+		assertEquals(2, queue.size());
+
+		// Demande de l'interface pour le favori en cours : elle attend la tâche en cours, sans nouvelle tâche
+		CompletableFuture<Favorite> requested = queue.submitInteractive(favorite(1L, 0));
+		assertEquals(2, queue.size());
+		Favorite enriched = favorite(1L, 0);
+		queue.complete(running, enriched);
+		assertSame(enriched, requested.getNow(null));
+
+		// Terminé : de nouveau accepté par le rattrapage
+		assertEquals(1, queue.offerBackfill(List.of(favorite(1L, 0))));
+	}
+
+	@Test
+	void interactiveRequestPromotesAQueuedBackfillTask() {
+		queue.offerBackfill(List.of(favorite(1L, 0), favorite(2L, 100), favorite(3L, 200)));
+
+		CompletableFuture<Favorite> first = queue.submitInteractive(favorite(3L, 200));
+		// Deuxième demande pour le même favori : même tâche, même résultat
+		assertSame(first, queue.submitInteractive(favorite(3L, 200)));
+		assertEquals(3, queue.size());
+
+		EnrichmentQueue.Task next = queue.poll();
+		assertEquals(3L, next.getFavoriteId());
+		assertTrue(next.isInteractive());
+		queue.fail(next, new IllegalStateException("Page Vinted indisponible"));
+		ExecutionException error = assertThrows(ExecutionException.class, first::get);
+		assertEquals("Page Vinted indisponible", error.getCause().getMessage());
+
+		assertEquals(List.of(1L, 2L), drain());
+	}
+
+	@Test
+	void failAllFailsQueuedAndInFlightTasksAndEmptiesTheQueue() {
+		CompletableFuture<Favorite> inFlight = queue.submitInteractive(favorite(1L, 0));
+		queue.poll();
+		CompletableFuture<Favorite> queued = queue.submitInteractive(favorite(2L, 100));
+		queue.offerBackfill(List.of(favorite(3L, 200)));
+
+		queue.failAll(new IllegalStateException("Arrêt de l'application"));
+
+		assertTrue(inFlight.isCompletedExceptionally());
+		assertTrue(queued.isCompletedExceptionally());
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+		// Plus rien en cours : une nouvelle demande crée une nouvelle tâche
+		assertFalse(queue.submitInteractive(favorite(1L, 0)).isDone());
+	}
+
+	private List<Long> drain() {
+		List<Long> ids = new ArrayList<>();
+		EnrichmentQueue.Task task;
+		while ((task = queue.poll()) != null) {
+			ids.add(task.getFavoriteId());
+			queue.complete(task, task.getFavorite());
+		}
+		return ids;
+	}
+
+	private static Favorite favorite(Long id, Integer favoriteOrder) {
+		Favorite favorite = new Favorite();
+		favorite.setId(id);
+		favorite.setFavoriteOrder(favoriteOrder);
+		return favorite;
+	}
+}
@@ -0,0 +1,111 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tampon d'écriture de l'enrichissement : écriture par taille de lot, à l'arrêt, et échec renvoyé
+ * à une demande de l'interface
+ */
+class EnrichmentWriteBufferTest {
+
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final FavoriteDetailsService detailsService = mock(FavoriteDetailsService.class);
+	private final FavoriteDatasetVersion datasetVersion = mock(FavoriteDatasetVersion.class);
+	private final FavoriteEventService eventService = mock(FavoriteEventService.class);
+	private final CacheStatisticsService cacheService = mock(CacheStatisticsService.class);
+	private final EnrichmentWriteBuffer buffer = new EnrichmentWriteBuffer(mock(JdbcTemplate.class), transactionTemplate,
+			detailsService, datasetVersion, eventService, cacheService);
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ReflectionTestUtils.setField(buffer, "flushSize", 3);
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushesOnceTheBatchIsFull() {
+		buffer.add(favorite(1L), false, new FavoriteDetails(), false);
+		buffer.add(favorite(2L), true, new FavoriteDetails(), false);
+		verify(detailsService, never()).saveAllDetails(anyList());
+		assertEquals(2, buffer.getPendingIds().size());
+
+		buffer.add(favorite(3L), false, new FavoriteDetails(), false);
+
+		ArgumentCaptor<List<FavoriteDetails>> written = ArgumentCaptor.forClass(List.class);
+		verify(detailsService).saveAllDetails(written.capture());
+		assertEquals(List.of(1L, 2L, 3L), written.getValue().stream().map(FavoriteDetails::getFavoriteId).toList());
+		assertTrue(buffer.getPendingIds().isEmpty());
+		// Seul le favori reclassé vide le cache et publie une nouvelle version
+		verify(cacheService).evictFavorites(List.of(2L));
+		verify(datasetVersion).increment();
+	}
+
+	@Test
+	void closeWritesWhatIsLeftThenEveryLaterResult() {
+		buffer.add(favorite(1L), false, new FavoriteDetails(), false);
+		buffer.close();
+		verify(detailsService).saveAllDetails(anyList());
+
+		// Arrêt en cours : un enrichissement qui finit encore son favori l'écrit aussitôt
+		buffer.add(favorite(2L), false, new FavoriteDetails(), false);
+		verify(detailsService, times(2)).saveAllDetails(anyList());
+		assertTrue(buffer.getPendingIds().isEmpty());
+	}
+
+	@Test
+	void failedWriteIsReportedToAnImmediateRequestOnly() {
+		doThrow(new DataAccessResourceFailureException("base indisponible")).when(detailsService).saveAllDetails(anyList());
+
+		// Rattrapage : lot journalisé et abandonné, le favori repartira au prochain enrichissement
+		buffer.add(favorite(1L), false, new FavoriteDetails(), false);
+		buffer.add(favorite(2L), false, new FavoriteDetails(), false);
+		buffer.add(favorite(3L), false, new FavoriteDetails(), false);
+		assertTrue(buffer.getPendingIds().isEmpty());
+
+		buffer.add(favorite(4L), false, new FavoriteDetails(), false);
+		buffer.scheduledFlush();
+		assertTrue(buffer.getPendingIds().isEmpty());
+
+		// Demande de l'interface : l'échec remonte jusqu'à la tâche, donc jusqu'au 502 du contrôleur
+		assertThrows(DataAccessResourceFailureException.class,
+				() -> buffer.add(favorite(5L), true, new FavoriteDetails(), true));
+		assertTrue(buffer.getPendingIds().isEmpty());
+		verify(datasetVersion, never()).increment();
+	}
+
+	private static Favorite favorite(Long id) {
+		Favorite favorite = new Favorite();
+		favorite.setId(id);
+		favorite.setVintedId("vinted-" + id);
+		return favorite;
+	}
+}
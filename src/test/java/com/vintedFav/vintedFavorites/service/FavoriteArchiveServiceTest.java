@@ -0,0 +1,89 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archivage des vendus : les détails lus par l'enrichissement suivent le favori dans l'archive
+ * et reviennent avec lui quand il redevient disponible.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:favoriteArchive;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"vinted.sync.enabled=false",
+		"vinted.sync.on-startup=false",
+		"vinted.archive.enabled=false",
+		"vinted.archive.sold-after-days=30"
+})
+@ActiveProfiles("embedded")
+class FavoriteArchiveServiceTest {
+
+	@Autowired
+	private FavoriteArchiveService archiveService;
+
+	@Autowired
+	private FavoriteSyncService syncService;
+
+	@Autowired
+	private FavoriteDetailsService detailsService;
+
+	@Autowired
+	private FavoriteRepository favoriteRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void archivingKeepsDetailsAndRevivalRestoresThem() {
+		Favorite sold = favoriteRepository.save(favorite("archive-1", true));
+		jdbcTemplate.update("UPDATE favorites SET sold_at = ? WHERE id = ?",
+				LocalDateTime.now().minusDays(60), sold.getId());
+		FavoriteDetails details = new FavoriteDetails();
+		details.setFavoriteId(sold.getId());
+		details.setDescription("Très peu portées");
+		details.setPhotoUrls(List.of("https://images.example/1.jpg", "https://images.example/2.jpg"));
+		details.setFavouriteCount(12);
+		detailsService.saveAllDetails(List.of(details));
+
+		assertEquals(1, archiveService.archiveSoldFavorites());
+		assertTrue(favoriteRepository.findById(sold.getId()).isEmpty());
+		assertTrue(detailsService.getDetails(sold.getId()).isEmpty());
+		assertEquals("Très peu portées", jdbcTemplate.queryForObject(
+				"SELECT description FROM favorite_details_archive WHERE favorite_id = ?", String.class, sold.getId()));
+
+		// Remis en vente chez Vinted : la sync le réinsère sous un nouvel id, avec ses détails
+		syncService.applySync(List.of(favorite("archive-1", false)));
+		Favorite revived = favoriteRepository.findByVintedId("archive-1").orElseThrow();
+		assertNotEquals(sold.getId(), revived.getId());
+
+		FavoriteDetails restored = detailsService.getDetails(revived.getId()).orElseThrow();
+		assertEquals("Très peu portées", restored.getDescription());
+		assertEquals(List.of("https://images.example/1.jpg", "https://images.example/2.jpg"), restored.getPhotoUrls());
+		assertEquals(12, restored.getFavouriteCount());
+		assertTrue(detailsService.getEnrichedFavoriteIds().contains(revived.getId()));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorite_details_archive", Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites_archive", Integer.class));
+	}
+
+	private static Favorite favorite(String vintedId, boolean sold) {
+		Favorite favorite = new Favorite();
+		favorite.setVintedId(vintedId);
+		favorite.setTitle("Baskets");
+		favorite.setBrand("Nike");
+		favorite.setPrice(40.0);
+		favorite.setSold(sold);
+		return favorite;
+	}
+}
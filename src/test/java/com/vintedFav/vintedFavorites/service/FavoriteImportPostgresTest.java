@@ -0,0 +1,37 @@
+package com.vintedFav.vintedFavorites.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+/**
+ * Tests de FavoriteImportServiceTest sur un PostgreSQL embarqué : upsert par INSERT ... ON CONFLICT
+ */
+class FavoriteImportPostgresTest extends FavoriteImportServiceTest {
+
+	private static EmbeddedPostgres postgres;
+
+	@BeforeAll
+	static void startDatabase() throws IOException {
+		postgres = EmbeddedPostgres.start();
+	}
+
+	@DynamicPropertySource
+	static void embeddedPostgres(DynamicPropertyRegistry registry) {
+		// Lu au chargement du contexte, après @BeforeAll ; prioritaire sur l'URL H2 de la classe parente
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "");
+	}
+
+	@AfterAll
+	static void stopDatabase() throws IOException {
+		if (postgres != null) {
+			postgres.close();
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.dto.ImportResponse;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.model.FavoriteDetails;
+import com.vintedFav.vintedFavorites.model.FavoriteHistory;
+import com.vintedFav.vintedFavorites.repository.FavoriteHistoryRepository;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Import massif et écriture manuelle : un réimport met à jour sans dupliquer, un changement de prix ou de statut
+ * laisse une ligne d'historique, un favori archivé n'est jamais dupliqué.
+ * Sur H2 (MERGE) ; FavoriteImportPostgresTest rejoue les mêmes tests sur PostgreSQL (ON CONFLICT).
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:favoriteImport;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"vinted.sync.enabled=false",
+		"vinted.sync.on-startup=false",
+		"vinted.archive.enabled=false",
+		"vinted.import.batch-size=2"
+})
+@ActiveProfiles("embedded")
+class FavoriteImportServiceTest {
+
+	@Autowired
+	private FavoriteImportService importService;
+
+	@Autowired
+	private FavoriteService favoriteService;
+
+	@Autowired
+	private FavoriteRepository favoriteRepository;
+
+	@Autowired
+	private FavoriteHistoryRepository historyRepository;
+
+	@Autowired
+	private FavoriteArchiveService archiveService;
+
+	@Autowired
+	private FavoriteDetailsService detailsService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void reimportUpdatesEachBatchWithoutDuplicates() {
+		String file = """
+				[{"vintedId": "reimport-1", "title": "Chemise", "price": 15.0, "favoriteOrder": 1},
+				 {"vintedId": "reimport-2", "title": "Pantalon", "price": 25.0, "favoriteOrder": 2},
+				 {"vintedId": "reimport-3", "title": "Gilet", "price": 18.0, "favoriteOrder": 3},
+				 {"vintedId": "reimport-4", "title": "Robe", "price": 30.0, "favoriteOrder": 4},
+				 {"vintedId": "reimport-5", "title": "Short", "price": 12.0, "favoriteOrder": 5}]""";
+
+		ImportResponse first = importJson(file);
+		assertEquals(List.of(2, 2, 1), first.getBatches().stream().map(ImportResponse.BatchStats::getInserted).toList());
+		assertEquals(List.of(0, 0, 0), first.getBatches().stream().map(ImportResponse.BatchStats::getUpdated).toList());
+
+		// Ordre réattribué par une sync depuis l'export du fichier
+		jdbcTemplate.update("UPDATE favorites SET favorite_order = 99 WHERE vinted_id = 'reimport-3'");
+
+		ImportResponse second = importJson(file);
+		assertEquals(List.of(0, 0, 0), second.getBatches().stream().map(ImportResponse.BatchStats::getInserted).toList());
+		assertEquals(List.of(2, 2, 1), second.getBatches().stream().map(ImportResponse.BatchStats::getUpdated).toList());
+		assertEquals(0, second.getInserted());
+		assertEquals(5, second.getUpdated());
+
+		assertEquals(5, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM favorites WHERE vinted_id LIKE 'reimport-%'", Integer.class));
+		assertEquals(5, jdbcTemplate.queryForObject(
+				"SELECT COUNT(DISTINCT vinted_id) FROM favorites WHERE vinted_id LIKE 'reimport-%'", Integer.class));
+		assertEquals(99, favoriteRepository.findByVintedId("reimport-3").orElseThrow().getFavoriteOrder());
+	}
+
+	@Test
+	void importRecordsPriceAndStatusChangesOfExistingFavorites() {
+		importJson("""
+				[{"vintedId": "history-1", "title": "Manteau", "price": 50.0},
+				 {"vintedId": "history-2", "title": "Jupe", "price": 20.0}]""");
+		Favorite coat = favoriteRepository.findByVintedId("history-1").orElseThrow();
+		Favorite skirt = favoriteRepository.findByVintedId("history-2").orElseThrow();
+		// Nouveaux favoris : rien à historiser
+		assertTrue(historyRepository.findByFavoriteIdOrderByRecordedAtDesc(coat.getId()).isEmpty());
+
+		importJson("""
+				[{"vintedId": "history-1", "title": "Manteau", "price": 45.0},
+				 {"vintedId": "history-2", "title": "Jupe", "price": 20.0, "sold": true}]""");
+
+		List<FavoriteHistory> coatHistory = historyRepository.findByFavoriteIdOrderByRecordedAtDesc(coat.getId());
+		assertEquals(1, coatHistory.size());
+		assertEquals(45.0, coatHistory.get(0).getPrice());
+		assertEquals(50.0, coatHistory.get(0).getPreviousPrice());
+		assertEquals(false, coatHistory.get(0).getPreviousSold());
+
+		List<FavoriteHistory> skirtHistory = historyRepository.findByFavoriteIdOrderByRecordedAtDesc(skirt.getId());
+		assertEquals(1, skirtHistory.size());
+		assertEquals(true, skirtHistory.get(0).getSold());
+		assertEquals(false, skirtHistory.get(0).getPreviousSold());
+
+		// Même fichier réimporté : rien n'a changé
+		importJson("""
+				[{"vintedId": "history-1", "title": "Manteau", "price": 45.0}]""");
+		assertEquals(1, historyRepository.findByFavoriteIdOrderByRecordedAtDesc(coat.getId()).size());
+	}
+
+	@Test
+	void manualUpdateRecordsPriceChange() {
+		Favorite favorite = new Favorite();
+		favorite.setVintedId("history-manual");
+		favorite.setTitle("Sac");
+		favorite.setPrice(30.0);
+		favorite.setSold(false);
+		Favorite saved = favoriteService.saveFavorite(favorite);
+		assertTrue(historyRepository.findByFavoriteIdOrderByRecordedAtDesc(saved.getId()).isEmpty());
+
+		Favorite update = favoriteRepository.findById(saved.getId()).orElseThrow();
+		update.setPrice(25.0);
+		favoriteService.saveFavorite(update);
+
+		List<FavoriteHistory> history = historyRepository.findByFavoriteIdOrderByRecordedAtDesc(saved.getId());
+		assertEquals(1, history.size());
+		assertEquals(25.0, history.get(0).getPrice());
+		assertEquals(30.0, history.get(0).getPreviousPrice());
+	}
+
+	@Test
+	void archivedFavoriteIsRevivedOrSkippedButNeverDuplicated() {
+		Favorite available = archived("import-archive-1", "Toujours en forme");
+		archived("import-archive-2", null);
+
+		ImportResponse response = importJson("""
+				[{"vintedId": "import-archive-1", "title": "Bottes", "price": 35.0},
+				 {"vintedId": "import-archive-2", "title": "Écharpe", "price": 10.0, "sold": true}]""");
+		assertEquals(1, response.getInserted());
+		assertEquals(1, response.getSkipped());
+
+		// Disponible : une seule copie, vivante, avec ses détails
+		Favorite revived = favoriteRepository.findByVintedId("import-archive-1").orElseThrow();
+		assertNotEquals(available.getId(), revived.getId());
+		assertEquals("Toujours en forme", detailsService.getDetails(revived.getId()).orElseThrow().getDescription());
+		assertEquals(0, countArchived("import-archive-1"));
+
+		// Toujours vendu : reste dans l'archive seulement
+		assertTrue(favoriteRepository.findByVintedId("import-archive-2").isEmpty());
+		assertEquals(1, countArchived("import-archive-2"));
+	}
+
+	private Favorite archived(String vintedId, String description) {
+		Favorite favorite = new Favorite();
+		favorite.setVintedId(vintedId);
+		favorite.setTitle("Archivé");
+		favorite.setPrice(30.0);
+		favorite.setSold(true);
+		favorite = favoriteRepository.save(favorite);
+		jdbcTemplate.update("UPDATE favorites SET sold_at = ? WHERE id = ?", LocalDateTime.now().minusDays(60), favorite.getId());
+		if (description != null) {
+			FavoriteDetails details = new FavoriteDetails();
+			details.setFavoriteId(favorite.getId());
+			details.setDescription(description);
+			detailsService.saveAllDetails(List.of(details));
+		}
+		archiveService.archiveSoldFavorites();
+		assertEquals(1, countArchived(vintedId));
+		return favorite;
+	}
+
+	private int countArchived(String vintedId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites_archive WHERE vinted_id = ?", Integer.class, vintedId);
+	}
+
+	private ImportResponse importJson(String json) {
+		ImportResponse response = importService.importFavorites(
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+		assertTrue(response.isSuccess(), response.getMessage());
+		return response;
+	}
+}
@@ -0,0 +1,90 @@
+package com.vintedFav.vintedFavorites.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.vintedFav.vintedFavorites.service.FavoriteOrdering.GAP;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Attribution des ordres à trous : seuls les favoris nouveaux ou déplacés changent d'ordre,
+ * sauf quand il n'y a plus de place entre deux voisins (renumérotation complète).
+ */
+class FavoriteOrderingTest {
+
+	@Test
+	void firstSyncSpacesFavoritesByGap() {
+		assertArrayEquals(new int[] { 0, GAP, 2 * GAP }, FavoriteOrdering.assign(new Integer[] { null, null, null }));
+	}
+
+	@Test
+	void unchangedListKeepsItsOrders() {
+		assertArrayEquals(new int[] { 0, GAP, 2 * GAP }, FavoriteOrdering.assign(new Integer[] { 0, GAP, 2 * GAP }));
+	}
+
+	@Test
+	void insertAtHeadTakesOneGapBeforeTheFirst() {
+		assertArrayEquals(new int[] { -2 * GAP, -GAP, 0, GAP },
+				FavoriteOrdering.assign(new Integer[] { null, null, 0, GAP }));
+	}
+
+	@Test
+	void insertInTheMiddleSplitsTheGap() {
+		assertArrayEquals(new int[] { 0, GAP / 3, 2 * GAP / 3, GAP },
+				FavoriteOrdering.assign(new Integer[] { 0, null, null, GAP }));
+	}
+
+	@Test
+	void insertAtTailTakesOneGapAfterTheLast() {
+		assertArrayEquals(new int[] { 0, GAP, 2 * GAP }, FavoriteOrdering.assign(new Integer[] { 0, GAP, null }));
+	}
+
+	@Test
+	void movedFavoriteIsTheOnlyOneReassigned() {
+		// Le dernier favori est remonté en tête : les deux autres restent bien ordonnés
+		assertArrayEquals(new int[] { -GAP, 0, GAP }, FavoriteOrdering.assign(new Integer[] { 2 * GAP, 0, GAP }));
+		// Le premier est descendu en troisième position
+		assertArrayEquals(new int[] { GAP, 2 * GAP, 5 * GAP / 2, 3 * GAP },
+				FavoriteOrdering.assign(new Integer[] { GAP, 2 * GAP, 0, 3 * GAP }));
+	}
+
+	@Test
+	void exhaustedGapRebalancesEverything() {
+		assertArrayEquals(new int[] { 0, GAP, 2 * GAP, 3 * GAP },
+				FavoriteOrdering.assign(new Integer[] { 0, null, null, 2 }));
+	}
+
+	@Test
+	void orderOutsideIntRangeRebalances() {
+		assertArrayEquals(new int[] { 0, GAP },
+				FavoriteOrdering.assign(new Integer[] { null, Integer.MIN_VALUE + 10 }));
+	}
+
+	@Test
+	void legacyDenseOrdersAreKeptUntilThereIsNoRoom() {
+		// Ordres 0, 1, 2... d'avant les trous : conservés, un ajout en tête ou en queue suffit
+		assertArrayEquals(new int[] { -GAP, 0, 1, 2 }, FavoriteOrdering.assign(new Integer[] { null, 0, 1, 2 }));
+		assertArrayEquals(new int[] { 0, 1, 2, 2 + GAP }, FavoriteOrdering.assign(new Integer[] { 0, 1, 2, null }));
+		// Un ajout entre deux ordres consécutifs impose la renumérotation
+		assertArrayEquals(new int[] { 0, GAP, 2 * GAP, 3 * GAP },
+				FavoriteOrdering.assign(new Integer[] { 0, null, 1, 2 }));
+	}
+
+	@Test
+	void resultIsAlwaysStrictlyIncreasing() {
+		Random random = new Random(42);
+		for (int round = 0; round < 500; round++) {
+			Integer[] current = new Integer[1 + random.nextInt(40)];
+			for (int i = 0; i < current.length; i++) {
+				current[i] = random.nextInt(4) == 0 ? null : random.nextInt(8) * (random.nextBoolean() ? 1 : GAP);
+			}
+
+			int[] assigned = FavoriteOrdering.assign(current);
+			for (int i = 1; i < assigned.length; i++) {
+				assertTrue(assigned[i - 1] < assigned[i], "ordre non croissant à la position " + i);
+			}
+		}
+	}
+}
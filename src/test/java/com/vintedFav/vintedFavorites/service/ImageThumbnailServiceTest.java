@@ -0,0 +1,60 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import com.vintedFav.vintedFavorites.service.ImageThumbnailService.ThumbnailSize;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Photos téléchargées uniquement depuis le CDN Vinted, en https
+ */
+class ImageThumbnailServiceTest {
+
+	@TempDir
+	Path cacheDir;
+
+	private final FavoriteRepository favoriteRepository = mock(FavoriteRepository.class);
+
+	@Test
+	void onlyHttpsUrlsOnAllowedHostsAreDownloaded() throws IOException {
+		ImageThumbnailService service = service();
+
+		assertTrue(service.isAllowed("https://images1.vinted.net/t/01_abc/f800/1.jpeg"));
+		assertTrue(service.isAllowed("https://VINTED.NET/1.jpeg"));
+		assertFalse(service.isAllowed("http://images1.vinted.net/1.jpeg"));
+		assertFalse(service.isAllowed("https://vinted.net.evil.example/1.jpeg"));
+		assertFalse(service.isAllowed("https://evilvinted.net/1.jpeg"));
+		assertFalse(service.isAllowed("https://images1.vinted.net@169.254.169.254/latest/meta-data"));
+		assertFalse(service.isAllowed("https://localhost:8080/actuator/env"));
+		assertFalse(service.isAllowed("file:///etc/passwd"));
+		assertFalse(service.isAllowed("not a url"));
+	}
+
+	@Test
+	void internalUrlIsNotFetched() throws IOException {
+		Favorite favorite = new Favorite();
+		favorite.setId(1L);
+		favorite.setImageUrl("http://169.254.169.254/latest/meta-data/");
+		when(favoriteRepository.findById(1L)).thenReturn(Optional.of(favorite));
+
+		// Aucun téléchargement tenté : pas d'IOException (502), simplement pas de vignette (404)
+		assertTrue(service().getThumbnail(1L, ThumbnailSize.THUMB).isEmpty());
+	}
+
+	private ImageThumbnailService service() throws IOException {
+		return new ImageThumbnailService(favoriteRepository, WebClient.builder(), cacheDir, 1024 * 1024,
+				0.8f, 1000, List.of("vinted.net"), "test");
+	}
+}
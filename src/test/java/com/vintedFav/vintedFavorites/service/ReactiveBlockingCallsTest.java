@@ -0,0 +1,158 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vintedFav.vintedFavorites.model.VintedCookie;
+import com.vintedFav.vintedFavorites.repository.FavoriteDetailsRepository;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sync, refresh du token et enrichissement contre un faux Vinted. BlockHound est installé
+ * pour toute la suite (voir JdbcBlockHoundIntegration) : une connexion JDBC prise sur un
+ * thread non bloquant (event loop Reactor Netty, Schedulers.parallel) fait échouer la chaîne.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reactiveBlocking;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"vinted.sync.enabled=false",
+		"vinted.sync.on-startup=false",
+		"vinted.api.user-id=42",
+		"vinted.api.enrichment-delay=10"
+})
+@ActiveProfiles("embedded")
+class ReactiveBlockingCallsTest {
+
+	private static final HttpServer VINTED = startFakeVinted();
+	private static final AtomicInteger ITEM_PAGES = new AtomicInteger();
+
+	@Autowired
+	private SyncCoordinator syncCoordinator;
+
+	@Autowired
+	private VintedCookieService cookieService;
+
+	@Autowired
+	private FavoriteRepository favoriteRepository;
+
+	@Autowired
+	private FavoriteDetailsRepository detailsRepository;
+
+	@DynamicPropertySource
+	static void vintedBaseUrl(DynamicPropertyRegistry registry) {
+		registry.add("vinted.api.base-url", () -> "http://localhost:" + VINTED.getAddress().getPort());
+	}
+
+	@AfterAll
+	static void stopFakeVinted() {
+		VINTED.stop(0);
+	}
+
+	@Test
+	void blockHoundRejectsJdbcOnNonBlockingThreads() {
+		Throwable error = Mono.fromCallable(favoriteRepository::count)
+				.subscribeOn(Schedulers.parallel())
+				.map(count -> (Throwable) null)
+				.onErrorResume(Mono::just)
+				.block(Duration.ofSeconds(10));
+
+		// Spring enveloppe l'erreur (CannotCreateTransactionException) : on remonte les causes
+		Throwable root = error;
+		while (root != null && !(root instanceof BlockingOperationError)) {
+			root = root.getCause();
+		}
+		assertInstanceOf(BlockingOperationError.class, root);
+	}
+
+	@Test
+	void syncAndEnrichmentKeepJdbcOffTheEventLoop() throws InterruptedException {
+		cookieService.saveAllCookiesFromRawString("_vinted_fr_session=session; access_token_web=" + jwt(1)
+				+ "; refresh_token_web=refresh", "vinted.fr");
+
+		SyncResult result = syncCoordinator.runSync("test").block(Duration.ofSeconds(30));
+
+		assertNotNull(result);
+		assertEquals(3, result.getNewCount());
+		// Jeton expiré rafraîchi via /oauth/token, cookies Set-Cookie enregistrés
+		assertEquals(jwt(4102444800L), cookieService.getCookieByName("access_token_web").map(VintedCookie::getCookieValue).orElse(null));
+		assertTrue(cookieService.getCookieByName("anon_id").isPresent());
+
+		SyncJob enrichment = awaitEnrichment();
+		assertEquals(SyncJob.Status.SUCCEEDED, enrichment.toStatus().get("status"));
+		assertEquals(3, ITEM_PAGES.get());
+		assertEquals(3, detailsRepository.count());
+	}
+
+	private SyncJob awaitEnrichment() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (System.currentTimeMillis() < deadline) {
+			SyncJob job = syncCoordinator.getRecentJobs().stream()
+					.filter(j -> j.getType() == SyncJob.Type.ENRICHMENT)
+					.findFirst().orElse(null);
+			if (job != null && !job.isRunning()) {
+				return job;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("Enrichissement non terminé");
+	}
+
+	private static String jwt(long exp) {
+		String payload = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(("{\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8));
+		return "e30." + payload + ".signature";
+	}
+
+	private static HttpServer startFakeVinted() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/oauth/token", exchange -> respond(exchange, "application/json",
+					"{\"access_token\":\"" + jwt(4102444800L) + "\",\"refresh_token\":\"refresh-2\"}"));
+			server.createContext("/api/v2/users/42/items/favourites", exchange -> {
+				exchange.getResponseHeaders().add("Set-Cookie", "anon_id=anon; Path=/; Max-Age=3600");
+				respond(exchange, "application/json", "{\"items\":["
+						+ "{\"id\":1001,\"title\":\"Robe\",\"brand_title\":\"A\",\"price\":{\"amount\":\"10.0\"}},"
+						+ "{\"id\":1002,\"title\":\"Veste\",\"brand_title\":\"B\",\"price\":{\"amount\":\"20.0\"}},"
+						+ "{\"id\":1003,\"title\":\"Jean\",\"brand_title\":\"C\",\"price\":{\"amount\":\"30.0\"}}]}");
+			});
+			server.createContext("/items/", exchange -> {
+				ITEM_PAGES.incrementAndGet();
+				String id = exchange.getRequestURI().getPath().substring("/items/".length());
+				respond(exchange, "text/html", "<a href=\"/femmes\">Femmes</a> / <a href=\"/femmes/robes\">Robes</a> /"
+						+ "<script>{\"item\":{\"id\":" + id + ",\"description\":\"Article " + id + "\"}}</script>");
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", contentType);
+		exchange.sendResponseHeaders(200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}
@@ -0,0 +1,108 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.vintedFav.vintedFavorites.model.Favorite;
+import com.vintedFav.vintedFavorites.repository.FavoriteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Choix des favoris d'un passage de sonde : les plus récents d'abord, puis la rotation depuis le curseur,
+ * qui repart du début de la table une fois la fin atteinte, sans jamais sonder deux fois le même favori.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:soldProbe;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"vinted.sync.enabled=false",
+		"vinted.sync.on-startup=false",
+		"vinted.archive.enabled=false",
+		"vinted.probe.max-items=4",
+		"vinted.probe.newest-share=0.5"
+})
+@ActiveProfiles("embedded")
+class SoldStatusProbeServiceTest {
+
+	@Autowired
+	private SoldStatusProbeService probeService;
+
+	@Autowired
+	private FavoriteRepository favoriteRepository;
+
+	// Ids des favoris disponibles, du plus ancien au plus récent ajouté aux favoris Vinted
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		favoriteRepository.deleteAll();
+		ids.clear();
+		for (int i = 1; i <= 6; i++) {
+			// favorite_order 1 = le plus récent : le dernier inséré
+			ids.add(favoriteRepository.save(favorite("probe-" + i, 7 - i, false)).getId());
+		}
+		favoriteRepository.save(favorite("probe-sold", 0, true));
+		ReflectionTestUtils.setField(probeService, "cursor", 0L);
+		ReflectionTestUtils.setField(probeService, "configuredMaxItems", 4);
+	}
+
+	@Test
+	void newestComeFirstThenTheRotation() {
+		List<SoldStatusProbeService.Candidate> candidates = probeService.nextCandidates();
+
+		// Les deux plus récents, puis les deux premiers ids de la rotation
+		assertEquals(List.of(ids.get(5), ids.get(4), ids.get(0), ids.get(1)), idsOf(candidates));
+		assertEquals(List.of(false, false, true, true), candidates.stream().map(c -> c.rotating).toList());
+	}
+
+	@Test
+	void rotationSkipsTheNewestAndWrapsAroundTheCursor() {
+		// Curseur après le 4e favori : la rotation ne trouve que les plus récents, puis repart du début
+		ReflectionTestUtils.setField(probeService, "cursor", ids.get(3));
+
+		List<SoldStatusProbeService.Candidate> candidates = probeService.nextCandidates();
+
+		assertEquals(List.of(ids.get(5), ids.get(4), ids.get(0), ids.get(1)), idsOf(candidates));
+	}
+
+	@Test
+	void wrapAroundStopsBeforeTheCursor() {
+		ReflectionTestUtils.setField(probeService, "cursor", ids.get(2));
+		ReflectionTestUtils.setField(probeService, "configuredMaxItems", 6);
+
+		List<SoldStatusProbeService.Candidate> candidates = probeService.nextCandidates();
+
+		// 3 plus récents, la fin de la table (déjà prise), puis le début jusqu'au curseur inclus
+		assertEquals(List.of(ids.get(5), ids.get(4), ids.get(3), ids.get(0), ids.get(1), ids.get(2)), idsOf(candidates));
+	}
+
+	@Test
+	void maxItemsIsDerivedFromTheInterval() {
+		SoldStatusProbeService service = new SoldStatusProbeService(null, null, null, null);
+		ReflectionTestUtils.setField(service, "intervalMs", 300_000L);
+		ReflectionTestUtils.setField(service, "delayMs", 1500L);
+
+		assertEquals(160, service.getMaxItems());
+
+		ReflectionTestUtils.setField(service, "configuredMaxItems", 50);
+		assertEquals(50, service.getMaxItems());
+	}
+
+	private static List<Long> idsOf(List<SoldStatusProbeService.Candidate> candidates) {
+		return candidates.stream().map(c -> c.id).toList();
+	}
+
+	private static Favorite favorite(String vintedId, int order, boolean sold) {
+		Favorite favorite = new Favorite();
+		favorite.setVintedId(vintedId);
+		favorite.setTitle(vintedId);
+		favorite.setFavoriteOrder(order);
+		favorite.setSold(sold);
+		return favorite;
+	}
+}
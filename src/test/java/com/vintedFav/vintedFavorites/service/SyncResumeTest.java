@@ -0,0 +1,255 @@
+package com.vintedFav.vintedFavorites.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vintedFav.vintedFavorites.model.Favorite;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reprise d'une sync depuis son checkpoint contre un faux Vinted (2 favoris par page) dont la liste change
+ * entre l'interruption et la reprise : dernier favori enregistré retrouvé sur la page relue, descendu sur
+ * la page suivante, disparu (checkpoint abandonné), ou page relue incomplète (run terminé).
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:syncResume;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+		"vinted.sync.enabled=false",
+		"vinted.sync.on-startup=false",
+		"vinted.api.user-id=42",
+		"vinted.api.favorites-per-page=2",
+		"vinted.sync.page-retries=0"
+})
+@ActiveProfiles("embedded")
+class SyncResumeTest {
+
+	private static final int PER_PAGE = 2;
+
+	// Liste des favoris Vinted, du plus récent au plus ancien
+	private static final List<Integer> VINTED_IDS = new CopyOnWriteArrayList<>();
+	private static final List<Integer> REQUESTED_PAGES = Collections.synchronizedList(new ArrayList<>());
+	// Pages qui répondent 503
+	private static final Map<Integer, Boolean> FAILING_PAGES = new ConcurrentHashMap<>();
+	private static final HttpServer VINTED = startFakeVinted();
+
+	@Autowired
+	private VintedApiService vintedApiService;
+
+	@Autowired
+	private SyncCheckpointService checkpointService;
+
+	@Autowired
+	private VintedCookieService cookieService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void vintedBaseUrl(DynamicPropertyRegistry registry) {
+		registry.add("vinted.api.base-url", () -> "http://localhost:" + VINTED.getAddress().getPort());
+	}
+
+	@AfterAll
+	static void stopFakeVinted() {
+		VINTED.stop(0);
+	}
+
+	@BeforeEach
+	void reset() {
+		cookieService.saveAllCookiesFromRawString("_vinted_fr_session=session; access_token_web=" + jwt(), "vinted.fr");
+		jdbcTemplate.update("DELETE FROM sync_checkpoints");
+		VINTED_IDS.clear();
+		REQUESTED_PAGES.clear();
+		FAILING_PAGES.clear();
+	}
+
+	@Test
+	void tailFoundOnTheReReadPageIsFollowedByTheFavoritesThatMovedUp() {
+		vintedList(101, 110);
+		String runId = checkpoint(3);
+		// Un favori déjà enregistré retiré : 107 remonte sur la page 3, après le dernier favori enregistré (106)
+		VINTED_IDS.remove(Integer.valueOf(102));
+		// Interrompue de nouveau juste après s'être raccordée
+		FAILING_PAGES.put(4, true);
+		assertThrows(RuntimeException.class, this::sync);
+		assertEquals(List.of(1, 3, 4), REQUESTED_PAGES);
+
+		// Favoris relus enregistrés comme une page à part, les pages déjà enregistrées intactes
+		assertEquals(List.of(1, 2, 3, 3), jdbcTemplate.queryForList(
+				"SELECT page_number FROM sync_checkpoint_pages WHERE run_id = ? ORDER BY page_number, id", Integer.class, runId));
+		assertEquals(List.of("101", "102", "103", "104", "105", "106", "107"), vintedIds(checkpointService.loadFavorites(runId)));
+
+		FAILING_PAGES.clear();
+		REQUESTED_PAGES.clear();
+		SyncResult result = sync();
+		assertEquals(List.of(1, 3, 4, 5), REQUESTED_PAGES);
+		assertEquals(3, result.getResumedFromPage());
+		assertStored(101, 110);
+		assertEquals(0, countCheckpoints());
+	}
+
+	@Test
+	void tailMovedDownAPageWithNewFavoritesAtTheTop() {
+		vintedList(201, 210);
+		checkpoint(3);
+		VINTED_IDS.add(0, 200);
+
+		SyncResult result = sync();
+
+		// Page 3 ne contient plus 206 : cherché puis trouvé page 4, la reprise continue après lui
+		assertEquals(List.of(1, 3, 4, 5, 6), REQUESTED_PAGES);
+		assertEquals(4, result.getResumedFromPage());
+		assertEquals(11, result.getFetchedCount());
+		assertStored(200, 210);
+	}
+
+	@Test
+	void missingTailDiscardsTheCheckpoint() {
+		vintedList(301, 310);
+		String runId = checkpoint(3);
+		// Le dernier favori enregistré n'est plus chez Vinted : impossible de se raccorder
+		VINTED_IDS.remove(Integer.valueOf(306));
+
+		SyncResult result = sync();
+
+		assertEquals(List.of(1, 3, 1, 2, 3, 4, 5), REQUESTED_PAGES);
+		assertEquals(0, result.getResumedFromPage());
+		assertEquals(9, result.getFetchedCount());
+		// Run repris de zéro : seuls les favoris actuels, sans la page 3 enregistrée
+		assertStored(VINTED_IDS.stream().map(String::valueOf).toList());
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites WHERE vinted_id = '306'", Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM sync_checkpoint_pages WHERE run_id = ?", Integer.class, runId));
+	}
+
+	@Test
+	void shortReReadPageCompletesTheRun() {
+		vintedList(401, 406);
+		checkpoint(3);
+		// Un favori retiré : la page 3 relue n'a plus qu'un favori, le dernier enregistré
+		VINTED_IDS.remove(Integer.valueOf(402));
+
+		SyncResult result = sync();
+
+		assertEquals(List.of(1, 3), REQUESTED_PAGES);
+		assertEquals(3, result.getResumedFromPage());
+		assertEquals(6, result.getFetchedCount());
+		assertStored(401, 406);
+		assertEquals(0, countCheckpoints());
+	}
+
+	/**
+	 * Checkpoint d'un run interrompu après la page lastPage, pris sur la liste Vinted actuelle
+	 */
+	private String checkpoint(int lastPage) {
+		String runId = UUID.randomUUID().toString();
+		for (int page = 1; page <= lastPage; page++) {
+			List<Favorite> favorites = new ArrayList<>();
+			for (int i = (page - 1) * PER_PAGE; i < page * PER_PAGE; i++) {
+				Favorite favorite = new Favorite();
+				favorite.setVintedId(String.valueOf(VINTED_IDS.get(i)));
+				favorite.setTitle("Article " + VINTED_IDS.get(i));
+				favorite.setPrice(10.0);
+				favorite.setSold(false);
+				favorites.add(favorite);
+			}
+			checkpointService.recordPage(runId, page, PER_PAGE, favorites);
+		}
+		return runId;
+	}
+
+	private SyncResult sync() {
+		return vintedApiService.syncAllFavorites(new SyncJob(SyncJob.Type.SYNC, "test")).block(Duration.ofSeconds(30));
+	}
+
+	private void assertStored(int first, int last) {
+		List<String> expected = new ArrayList<>();
+		for (int id = first; id <= last; id++) {
+			expected.add(String.valueOf(id));
+		}
+		assertStored(expected);
+	}
+
+	private void assertStored(List<String> expected) {
+		// Une seule ligne par favori, aucun oublié par la reprise
+		assertEquals(expected, jdbcTemplate.queryForList(
+				"SELECT vinted_id FROM favorites WHERE vinted_id IN (" + expected.stream().map(id -> "'" + id + "'")
+						.collect(Collectors.joining(",")) + ") ORDER BY vinted_id", String.class));
+	}
+
+	private int countCheckpoints() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sync_checkpoints", Integer.class);
+	}
+
+	private static List<String> vintedIds(List<Favorite> favorites) {
+		return favorites.stream().map(Favorite::getVintedId).toList();
+	}
+
+	private static void vintedList(int first, int last) {
+		for (int id = first; id <= last; id++) {
+			VINTED_IDS.add(id);
+		}
+	}
+
+	private static String jwt() {
+		String payload = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"exp\":4102444800}".getBytes(StandardCharsets.UTF_8));
+		return "e30." + payload + ".signature";
+	}
+
+	private static HttpServer startFakeVinted() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/api/v2/users/42/items/favourites", exchange -> {
+				int page = Integer.parseInt(exchange.getRequestURI().getQuery().replaceAll("^page=(\\d+).*", "$1"));
+				REQUESTED_PAGES.add(page);
+				if (FAILING_PAGES.containsKey(page)) {
+					exchange.sendResponseHeaders(503, -1);
+					exchange.close();
+					return;
+				}
+				List<Integer> ids = new ArrayList<>(VINTED_IDS);
+				String items = ids.subList(Math.min((page - 1) * PER_PAGE, ids.size()), Math.min(page * PER_PAGE, ids.size()))
+						.stream()
+						.map(id -> "{\"id\":" + id + ",\"title\":\"Article " + id + "\",\"price\":{\"amount\":\"10.0\"}}")
+						.collect(Collectors.joining(","));
+				respond(exchange, "{\"items\":[" + items + "]}");
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}